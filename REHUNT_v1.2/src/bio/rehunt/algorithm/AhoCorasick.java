@@ -0,0 +1,225 @@
+/*
+ * Program name: AhoCorasick.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Aho-Corasick algorithm for multiple string search.
+ */
+
+package bio.rehunt.algorithm;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick algorithm for multiple string search.
+ * All keys are compiled into one automaton, and every occurrence of every key is found in one pass over the text.
+ * The alphabet is the characters used by the keys; any other character of the text leads back to the root.
+ * The automaton is immutable after build(), so one instance can be shared by threads.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class AhoCorasick {
+	private List<String> keyList;	// keys before build
+	private int[] symbol;	// character -> symbol, -1 if not in alphabet
+	private int alphabetSize;
+	private int[] next;	// next[state*alphabetSize+symbol] -> state
+	private int[][] output;	// keys end on the state
+	private int[] outputLink;	// nearest suffix state which has output, -1 if none
+	private volatile boolean isBuilt = false;	// set after the fields are built, so a search sees them built
+
+	/**
+	 * Constructor for initialize Aho-Corasick algorithm.
+	 */
+	public AhoCorasick() {
+		keyList = new ArrayList<String>();
+	}
+
+	/**
+	 * Add a search key. Keys must be added before build().
+	 * @param key The search key.
+	 * @return The key index reported by search.
+	 */
+	public synchronized int addKey(String key) {
+		if(isBuilt)
+			throw new IllegalStateException("The automaton is built.");
+		keyList.add(key);
+		return keyList.size()-1;
+	}
+
+	/**
+	 * Get the number of keys.
+	 * @return The number of keys.
+	 */
+	public int getKeyCount() {
+		return keyList.size();
+	}
+
+	/**
+	 * Build the automaton from the added keys. A search builds it on first use if it is not called, once for all threads.
+	 */
+	public synchronized void build() {
+		if(isBuilt)
+			return;
+		// alphabet
+		char maxChar = 0;
+		for(String key : keyList) {
+			for(int i=0;i<key.length();i++)
+				maxChar = (char)Math.max(maxChar, key.charAt(i));
+		}
+		symbol = new int[maxChar+1];
+		Arrays.fill(symbol, -1);
+		alphabetSize = 0;
+		for(String key : keyList) {
+			for(int i=0;i<key.length();i++) {
+				if(symbol[key.charAt(i)] == -1)
+					symbol[key.charAt(i)] = alphabetSize++;
+			}
+		}
+		if(alphabetSize == 0)
+			alphabetSize = 1;
+		// trie
+		int maxStates = 1;
+		for(String key : keyList)
+			maxStates += key.length();
+		int[] trie = new int[maxStates*alphabetSize];
+		Arrays.fill(trie, -1);
+		List<List<Integer>> outputList = new ArrayList<List<Integer>>();
+		outputList.add(null);
+		int stateCount = 1;
+		for(int k=0;k<keyList.size();k++) {
+			String key = keyList.get(k);
+			if(key.length() == 0)
+				continue;
+			int state = 0;
+			for(int i=0;i<key.length();i++) {
+				int s = state*alphabetSize + symbol[key.charAt(i)];
+				if(trie[s] == -1) {
+					trie[s] = stateCount++;
+					outputList.add(null);
+				}
+				state = trie[s];
+			}
+			if(outputList.get(state) == null)
+				outputList.set(state, new ArrayList<Integer>(1));
+			outputList.get(state).add(k);
+		}
+		// failure links by breadth first search, and complete the goto function
+		next = Arrays.copyOf(trie, stateCount*alphabetSize);
+		int[] fail = new int[stateCount];
+		outputLink = new int[stateCount];
+		outputLink[0] = -1;
+		int[] queue = new int[stateCount];
+		int head = 0;
+		int tail = 0;
+		for(int c=0;c<alphabetSize;c++) {
+			int child = next[c];
+			if(child == -1)
+				next[c] = 0;
+			else {
+				fail[child] = 0;
+				outputLink[child] = -1;
+				queue[tail++] = child;
+			}
+		}
+		while(head < tail) {
+			int state = queue[head++];
+			for(int c=0;c<alphabetSize;c++) {
+				int child = next[state*alphabetSize+c];
+				int failNext = next[fail[state]*alphabetSize+c];
+				if(child == -1)
+					next[state*alphabetSize+c] = failNext;
+				else {
+					fail[child] = failNext;
+					outputLink[child] = outputList.get(failNext) != null ? failNext : outputLink[failNext];
+					queue[tail++] = child;
+				}
+			}
+		}
+		output = new int[stateCount][];
+		for(int state=0;state<stateCount;state++) {
+			List<Integer> keys = outputList.get(state);
+			if(keys != null) {
+				output[state] = new int[keys.size()];
+				for(int i=0;i<keys.size();i++)
+					output[state][i] = keys.get(i);
+			}
+		}
+		isBuilt = true;
+	}
+
+	/**
+	 * Search all keys from text.
+	 * @param text The search text.
+	 * @return Indices of the keys found on text.
+	 */
+	public BitSet search(CharSequence text) {
+		BitSet found = new BitSet(keyList.size());
+		search(text, 0, text.length(), found);
+		return found;
+	}
+
+	/**
+	 * Search all keys from a region of text, and mark the found keys.
+	 * @param text The search text.
+	 * @param start The start position for search.
+	 * @param end The end position (exclusive) for search.
+	 * @param found Indices of the found keys are set on it.
+	 */
+	public void search(CharSequence text, int start, int end, BitSet found) {
+		if(!isBuilt)
+			build();
+		int state = 0;
+		for(int i=start;i<end;i++) {
+			char ch = text.charAt(i);
+			int c = ch < symbol.length ? symbol[ch] : -1;
+			if(c == -1) {
+				state = 0;
+				continue;
+			}
+			state = next[state*alphabetSize+c];
+			for(int s=(output[state] != null ? state : outputLink[state]);s!=-1;s=outputLink[s]) {
+				for(int k : output[s])
+					found.set(k);
+			}
+		}
+	}
+
+	/**
+	 * Search all keys from text, and report every occurrence.
+	 * @param text The search text.
+	 * @param listener Receiver of the occurrences.
+	 */
+	public void search(CharSequence text, MatchListener listener) {
+		if(!isBuilt)
+			build();
+		int state = 0;
+		for(int i=0;i<text.length();i++) {
+			char ch = text.charAt(i);
+			int c = ch < symbol.length ? symbol[ch] : -1;
+			if(c == -1) {
+				state = 0;
+				continue;
+			}
+			state = next[state*alphabetSize+c];
+			for(int s=(output[state] != null ? state : outputLink[state]);s!=-1;s=outputLink[s]) {
+				for(int k : output[s])
+					listener.match(k, i+1);
+			}
+		}
+	}
+
+	/**
+	 * Receiver of the key occurrences found by Aho-Corasick search.
+	 */
+	public interface MatchListener {
+		/**
+		 * A key is found on text.
+		 * @param key The key index.
+		 * @param end The end position (exclusive) of the key on text.
+		 */
+		void match(int key, int end);
+	}
+}
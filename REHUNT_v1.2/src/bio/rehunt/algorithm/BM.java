@@ -11,15 +11,20 @@
 package bio.rehunt.algorithm;
 
 import java.io.*;
+import java.util.*;
+
 
 /**
  * Boyer-Moore algorithm for string search.
+ * It is the Boyer-Moore-Horspool variant, which compares the key in place on a CharSequence or a byte array text without allocation.
+ * The skip table has 256 entries, and a character of 256 or larger shares the entry of its low byte with the smallest skip of them.
  * @author Yu-Huei Cheng
  * @version REHUNT v1.2
  * @since JDK1.8.0
  */
 public class BM {
- 	private String text;	// total text
+ 	private CharSequence text;	// total text
+ 	private byte[] bytes;	// total text as bytes, used instead of text if not null
  	private String key;	// key string
  	private int[] skip;	// skip table
  	private int pos;	// current search position
@@ -39,7 +44,7 @@ public class BM {
 	 * @param text The search text.
 	 * @param key The search key.
 	 */
- 	public BM(String text, String key) {
+ 	public BM(CharSequence text, String key) {
  		this.text = text;
  		this.key = key;
  		skip = new int[256];
@@ -47,12 +52,26 @@ public class BM {
  		setSkip();	// set skip table
  	}
  	
+	/**
+	 * Constructor for initialize boyer-moore algorithm.
+	 * @param bytes The search text as bytes, such as ASCII sequence.
+	 * @param key The search key.
+	 */
+	public BM(byte[] bytes, String key) {
+		this.text = "";
+		this.bytes = bytes;
+		this.key = key;
+		skip = new int[256];
+		pos = 0;
+		setSkip();	// set skip table
+	}
+
 	/**
 	 * Search key from text. The text and key must be set firstly.
 	 * @return The found key position on text.
 	 */
  	public int search() {
- 		pos = search(0, text, key);
+ 		pos = search(0);
  		return getFindPos();
  	}
  	
@@ -61,9 +80,9 @@ public class BM {
 	 * @param text The search text.
 	 * @return The found key position on text.
 	 */
- 	public int search(String text) {
- 		this.text = text;
- 		pos = search(0, text, key);
+ 	public int search(CharSequence text) {
+ 		setText(text);
+ 		pos = search(0);
  		return getFindPos();
  	}
  	
@@ -73,43 +92,121 @@ public class BM {
 	 * @param key The search key.
 	 * @return The found key position on text.
 	 */
- 	public int search(String text, String key) {
- 		this.text = text;
+ 	public int search(CharSequence text, String key) {
+ 		setText(text);
  		this.key = key;
  		setSkip();
- 		pos = search(0, text, key);
+ 		pos = search(0);
  		return getFindPos();
  	}
  	
 	/**
-	 * Search key from text.
+	 * Search key from text. The skip table of the key set by the constructor, search(text, key) or setKey(key) is used.
 	 * @param pos The start position for search.
 	 * @param text The search text.
 	 * @param key The search key.
-	 * @return The found position of key on text.
+	 * @return The end position of the found key on text, or -1 if not found.
 	 */
- 	public int search(int pos, String text, String key) {
- 		if(key.equals(""))
+ 	public int search(int pos, CharSequence text, String key) {
+ 		int keyLen = key.length();
+ 		if(keyLen == 0)
  			return -1;
-		while(pos+key.length() <= text.length()) {
-			String tmp = text.substring(pos, pos+key.length());
-			if(tmp.equals(key)) {
-				pos += key.length();
-				return pos;
-			}
-			pos += skip[text.charAt(pos+key.length()-1)];
+		int last = keyLen-1;
+		while(pos+keyLen <= text.length()) {
+			int i = last;
+			while(i >= 0 && text.charAt(pos+i) == key.charAt(i))
+				i--;
+			if(i < 0)
+				return pos + keyLen;
+			pos += skip[text.charAt(pos+last) & 0xFF];
 		}
 		return -1;
  	}
- 	
+
+	/**
+	 * Search key from bytes. The skip table of the key set by the constructor, search(text, key) or setKey(key) is used.
+	 * @param pos The start position for search.
+	 * @param bytes The search text as bytes.
+	 * @param key The search key.
+	 * @return The end position of the found key on bytes, or -1 if not found.
+	 */
+	public int search(int pos, byte[] bytes, String key) {
+		int keyLen = key.length();
+		if(keyLen == 0)
+			return -1;
+		int last = keyLen-1;
+		while(pos+keyLen <= bytes.length) {
+			int i = last;
+			while(i >= 0 && (bytes[pos+i] & 0xFF) == key.charAt(i))
+				i--;
+			if(i < 0)
+				return pos + keyLen;
+			pos += skip[bytes[pos+last] & 0xFF];
+		}
+		return -1;
+	}
+
+	/**
+	 * Search key from the text set from the start position.
+	 * @param pos The start position for search.
+	 * @return The end position of the found key, or -1 if not found.
+	 */
+	private int search(int pos) {
+		if(bytes != null)
+			return search(pos, bytes, key);
+		return search(pos, text, key);
+	}
+
+	/**
+	 * Find all positions of key on text, including the overlapped ones. The text and key must be set firstly.
+	 * @return The found positions of key on text, in ascending order.
+	 */
+	public int[] findAll() {
+		int[] found = new int[16];
+		int count = 0;
+		int keyLen = key.length();
+		int end = search(0);
+		while(end != -1) {
+			if(count == found.length)
+				found = Arrays.copyOf(found, count * 2);
+			found[count++] = end - keyLen;
+			end = search(end - keyLen + 1);
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 * Find all positions of key on text, including the overlapped ones.
+	 * @param text The search text.
+	 * @param key The search key.
+	 * @return The found positions of key on text, in ascending order.
+	 */
+	public int[] findAll(CharSequence text, String key) {
+		setText(text);
+		setKey(key);
+		return findAll();
+	}
+
+	/**
+	 * Find all positions of key on bytes, including the overlapped ones.
+	 * @param bytes The search text as bytes.
+	 * @param key The search key.
+	 * @return The found positions of key on bytes, in ascending order.
+	 */
+	public int[] findAll(byte[] bytes, String key) {
+		setText(bytes);
+		setKey(key);
+		return findAll();
+	}
+
 	/**
 	 * Set skip table.
 	 */
  	private void setSkip() {
  		for(int i=0;i<256;i++)	// initial skip length is the key length
  			skip[i] = key.length();
- 		for(int i=0;i<key.length()-1;i++)	// adjust the skip
- 			skip[key.charAt(i)] = key.length()-i-1;
+ 		for(int i=0;i<key.length()-1;i++)	// adjust the skip, the latter is smaller if characters share an entry
+ 			skip[key.charAt(i) & 0xFF] = key.length()-i-1;
  	}
  	
 	/**
@@ -117,7 +214,9 @@ public class BM {
 	 * @return The found next position of key on text.
 	 */
 	public int next() {
-		pos = search(pos, text, key);
+		if(pos == -1)
+			return -1;
+		pos = search(pos);
 		return getFindPos();
 	}
 	
@@ -125,8 +224,18 @@ public class BM {
 	 * Set search text.
 	 * @param text The search text.
 	 */
-	public void setText(String text) {
+	public void setText(CharSequence text) {
 		this.text =	text;
+		this.bytes = null;
+	}
+
+	/**
+	 * Set search text as bytes.
+	 * @param bytes The search text as bytes, such as ASCII sequence.
+	 */
+	public void setText(byte[] bytes) {
+		this.text = "";
+		this.bytes = bytes;
 	}
 	
 	/**
@@ -0,0 +1,192 @@
+/*
+ * Program name: LazyDFA.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Lazy DFA of the Shift-And search for multiple IUPAC sequence search.
+ */
+
+package bio.rehunt.algorithm;
+
+import java.util.*;
+
+/**
+ * Lazy DFA of the Shift-And search for multiple IUPAC sequence search.
+ * A state of the DFA is a state of the Shift-And search, the bits of every key position matched by the last bases,
+ * so all keys, with or without IUPAC codes, are searched by one automaton over A, C, G and T without expanding the
+ * IUPAC codes. The states are built when the text first leads to them, with the keys ending on them, and then a base
+ * of the text costs one table lookup however many keys there are.
+ * <p>
+ * The built states are cached up to a memory size. When the cache is full, it is cleared and the states are built
+ * again from the current state, so the memory is bounded for any text. Any character other than A, C, G and T leads
+ * back to the start state, the same as ShiftAnd.
+ * A LazyDFA changes its cache by searching, so it must be used by one thread; the ShiftAnd can be shared.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class LazyDFA {
+	/** The default cache size in bytes. */
+	public static final long DEFAULT_CACHE_SIZE = 8l << 20;
+
+	private static final int[] NO_KEYS = new int[0];
+
+	private final ShiftAnd search;
+	private final int maxStates;
+	private final Map<State, Integer> stateIndex;
+	private final List<State> states;
+	private int[] next;	// next[state*4+base] -> state, -1 if not built
+	private long flushCount = 0l;
+
+	/**
+	 * The Shift-And state of a DFA state.
+	 */
+	private static final class State {
+		final long[] bits;
+		final int hash;
+		int[] acceptKeys;	// keys ending on the state
+
+		State(long[] bits) {
+			this.bits = bits;
+			hash = Arrays.hashCode(bits);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			return obj instanceof State && Arrays.equals(bits, ((State)obj).bits);
+		}
+	}
+
+	/**
+	 * Constructor for initialize LazyDFA with the default cache size.
+	 * @param search The Shift-And search of the keys.
+	 */
+	public LazyDFA(ShiftAnd search) {
+		this(search, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructor for initialize LazyDFA.
+	 * @param search The Shift-And search of the keys.
+	 * @param cacheSize The maximum memory of the cached states in bytes.
+	 */
+	public LazyDFA(ShiftAnd search, long cacheSize) {
+		this.search = search;
+		search.build();
+		// bits, transitions, accepted keys and the hash map entry of a state
+		long stateSize = 8l * search.getWordCount() + 128;
+		maxStates = (int)Math.max(Math.min(cacheSize / stateSize, Integer.MAX_VALUE / 4), 2);
+		stateIndex = new HashMap<State, Integer>();
+		states = new ArrayList<State>();
+		next = new int[64];
+		clear();
+	}
+
+	/**
+	 * Clear the cache, and keep the start state only.
+	 */
+	private void clear() {
+		stateIndex.clear();
+		states.clear();
+		addState(new State(new long[search.getWordCount()]));
+	}
+
+	/**
+	 * Add a state, and return its index.
+	 */
+	private int addState(State state) {
+		int index = states.size();
+		state.acceptKeys = search.getAcceptKeys(state.bits);
+		if(state.acceptKeys.length == 0)
+			state.acceptKeys = NO_KEYS;
+		states.add(state);
+		stateIndex.put(state, index);
+		if(next.length < (index + 1) * 4)
+			next = Arrays.copyOf(next, Math.max(next.length * 2, (index + 1) * 4));
+		Arrays.fill(next, index * 4, index * 4 + 4, -1);
+		return index;
+	}
+
+	/**
+	 * Build the transition of a state on a base.
+	 * @return The next state.
+	 */
+	private int buildTransition(int stateIdx, int base) {
+		State state = new State(search.step(states.get(stateIdx).bits, base));
+		Integer index = stateIndex.get(state);
+		if(index != null) {
+			next[stateIdx*4+base] = index.intValue();
+			return index.intValue();
+		}
+		if(states.size() >= maxStates) {
+			clear();
+			flushCount++;
+			return addState(state);	// the old state is gone, so its transition is not kept
+		}
+		int nextIdx = addState(state);
+		next[stateIdx*4+base] = nextIdx;
+		return nextIdx;
+	}
+
+	/**
+	 * Search all keys from text.
+	 * @param text The search text.
+	 * @return Indices of the keys found on text.
+	 */
+	public BitSet search(CharSequence text) {
+		BitSet found = new BitSet(search.getKeyCount());
+		search(text, 0, text.length(), found);
+		return found;
+	}
+
+	/**
+	 * Search all keys from a region of text, and mark the found keys.
+	 * @param text The search text.
+	 * @param start The start position for search.
+	 * @param end The end position (exclusive) for search.
+	 * @param found Indices of the found keys are set on it.
+	 */
+	public void search(CharSequence text, int start, int end, BitSet found) {
+		int state = 0;
+		for(int i=start;i<end;i++) {
+			int base = ShiftAnd.baseIndex(text.charAt(i));
+			if(base == -1) {
+				state = 0;
+				continue;
+			}
+			int nextIdx = next[state*4+base];
+			state = nextIdx != -1 ? nextIdx : buildTransition(state, base);
+			for(int key : states.get(state).acceptKeys)
+				found.set(key);
+		}
+	}
+
+	/**
+	 * Get the number of cached states.
+	 * @return The number of states.
+	 */
+	public int getStateCount() {
+		return states.size();
+	}
+
+	/**
+	 * Get the maximum number of cached states.
+	 * @return The maximum number of states.
+	 */
+	public int getMaxStateCount() {
+		return maxStates;
+	}
+
+	/**
+	 * Get the number of times the cache was cleared because it was full.
+	 * @return The number of times.
+	 */
+	public long getFlushCount() {
+		return flushCount;
+	}
+}
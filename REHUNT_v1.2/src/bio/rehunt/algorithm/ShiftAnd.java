@@ -0,0 +1,242 @@
+/*
+ * Program name: ShiftAnd.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Bit-parallel Shift-And algorithm for multiple IUPAC sequence search.
+ */
+
+package bio.rehunt.algorithm;
+
+import java.util.*;
+
+/**
+ * Bit-parallel Shift-And algorithm for multiple IUPAC sequence search.
+ * A key is a sequence of IUPAC nucleotide codes, and each code is a 4-bit mask of the bases A, C, G and T it stands for.
+ * A key position matches a base of the text if the base is in the mask, so a degenerate key such as GCNNNNNNNGC is
+ * searched directly without expanding it into general sequences. Only A, C, G and T of the text match; any other
+ * character, including an IUPAC code, matches no key position.
+ * <p>
+ * Keys are packed into 64-bit words, so every key must be 64 bases or shorter.
+ * The search is immutable after build(), so one instance can be shared by threads.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class ShiftAnd {
+	/** The maximum key length. */
+	public static final int MAX_KEY_LEN = 64;
+
+	private static final int[] BASE_MASK = new int[128];	// IUPAC code -> 4-bit mask of A, C, G, T
+	static {
+		BASE_MASK['A'] = 1;
+		BASE_MASK['C'] = 2;
+		BASE_MASK['G'] = 4;
+		BASE_MASK['T'] = 8;
+		BASE_MASK['M'] = 1|2;
+		BASE_MASK['R'] = 1|4;
+		BASE_MASK['W'] = 1|8;
+		BASE_MASK['S'] = 2|4;
+		BASE_MASK['Y'] = 2|8;
+		BASE_MASK['K'] = 4|8;
+		BASE_MASK['V'] = 1|2|4;
+		BASE_MASK['H'] = 1|2|8;
+		BASE_MASK['D'] = 1|4|8;
+		BASE_MASK['B'] = 2|4|8;
+		BASE_MASK['N'] = 1|2|4|8;
+	}
+
+	private List<String> keyList;	// keys before build
+	private int wordCount;
+	private long[] baseMask;	// baseMask[word*4+base], bits of key positions matching the base
+	private long[] startMask;	// first bit of every key in the word
+	private long[] acceptMask;	// last bit of every key in the word
+	private int[] acceptKey;	// acceptKey[word*64+bit] -> key index ending on the bit
+	private volatile boolean isBuilt = false;	// set after the fields are built, so a search sees them built
+
+	/**
+	 * Constructor for initialize Shift-And algorithm.
+	 */
+	public ShiftAnd() {
+		keyList = new ArrayList<String>();
+	}
+
+	/**
+	 * Get the base index of a text character.
+	 * @param ch Text character.
+	 * @return 0, 1, 2, 3 for A, C, G, T, else -1.
+	 */
+	public static int baseIndex(char ch) {
+		switch(ch) {
+			case 'A': return 0;
+			case 'C': return 1;
+			case 'G': return 2;
+			case 'T': return 3;
+			default: return -1;
+		}
+	}
+
+	/**
+	 * Get the bases an IUPAC code stands for.
+	 * @param code IUPAC code in upper case.
+	 * @return 4-bit mask of A, C, G, T (bit 0 to 3), or 0 if it is not an IUPAC code.
+	 */
+	public static int baseMask(char code) {
+		return code < 128 ? BASE_MASK[code] : 0;
+	}
+
+	/**
+	 * Add a search key. Keys must be added before build().
+	 * @param key The search key with IUPAC codes in upper case.
+	 * @return The key index reported by search.
+	 */
+	public synchronized int addKey(String key) {
+		if(isBuilt)
+			throw new IllegalStateException("The search is built.");
+		if(key.length() == 0 || key.length() > MAX_KEY_LEN)
+			throw new IllegalArgumentException("Key length must be 1 to " + MAX_KEY_LEN + ": " + key);
+		for(int i=0;i<key.length();i++) {
+			if(key.charAt(i) >= 128 || BASE_MASK[key.charAt(i)] == 0)
+				throw new IllegalArgumentException("Not an IUPAC code: " + key.charAt(i));
+		}
+		keyList.add(key);
+		return keyList.size()-1;
+	}
+
+	/**
+	 * Get the number of keys.
+	 * @return The number of keys.
+	 */
+	public int getKeyCount() {
+		return keyList.size();
+	}
+
+	/**
+	 * Get the number of 64-bit words of the state.
+	 * @return The number of words.
+	 */
+	public int getWordCount() {
+		if(!isBuilt)
+			build();
+		return wordCount;
+	}
+
+	/**
+	 * Pack the keys into words. A search builds the keys on first use if it is not called, once for all threads.
+	 */
+	public synchronized void build() {
+		if(isBuilt)
+			return;
+		int[] keyWord = new int[keyList.size()];
+		int[] keyBit = new int[keyList.size()];
+		int used = MAX_KEY_LEN;
+		wordCount = 0;
+		for(int k=0;k<keyList.size();k++) {
+			int len = keyList.get(k).length();
+			if(used + len > MAX_KEY_LEN) {
+				wordCount++;
+				used = 0;
+			}
+			keyWord[k] = wordCount-1;
+			keyBit[k] = used;
+			used += len;
+		}
+		baseMask = new long[wordCount*4];
+		startMask = new long[wordCount];
+		acceptMask = new long[wordCount];
+		acceptKey = new int[wordCount*MAX_KEY_LEN];
+		for(int k=0;k<keyList.size();k++) {
+			String key = keyList.get(k);
+			int word = keyWord[k];
+			for(int i=0;i<key.length();i++) {
+				int mask = BASE_MASK[key.charAt(i)];
+				for(int base=0;base<4;base++) {
+					if((mask & (1 << base)) != 0)
+						baseMask[word*4+base] |= 1L << (keyBit[k]+i);
+				}
+			}
+			startMask[word] |= 1L << keyBit[k];
+			acceptMask[word] |= 1L << (keyBit[k]+key.length()-1);
+			acceptKey[word*MAX_KEY_LEN+keyBit[k]+key.length()-1] = k;
+		}
+		isBuilt = true;
+	}
+
+	/**
+	 * Get the state after a base of the text.
+	 * @param state The state, a bit of every key position matched by the last bases.
+	 * @param base The base index of baseIndex().
+	 * @return The next state.
+	 */
+	long[] step(long[] state, int base) {
+		if(!isBuilt)
+			build();
+		long[] next = new long[wordCount];
+		for(int w=0;w<wordCount;w++)
+			next[w] = ((state[w] << 1) | startMask[w]) & baseMask[w*4+base];
+		return next;
+	}
+
+	/**
+	 * Get the keys which end on a state.
+	 * @param state The state.
+	 * @return Indices of the keys.
+	 */
+	int[] getAcceptKeys(long[] state) {
+		int count = 0;
+		for(int w=0;w<wordCount;w++)
+			count += Long.bitCount(state[w] & acceptMask[w]);
+		int[] keys = new int[count];
+		count = 0;
+		for(int w=0;w<wordCount;w++) {
+			long accept = state[w] & acceptMask[w];
+			while(accept != 0) {
+				keys[count++] = acceptKey[w*MAX_KEY_LEN+Long.numberOfTrailingZeros(accept)];
+				accept &= accept-1;
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Search all keys from text.
+	 * @param text The search text.
+	 * @return Indices of the keys found on text.
+	 */
+	public BitSet search(CharSequence text) {
+		BitSet found = new BitSet(keyList.size());
+		search(text, 0, text.length(), found);
+		return found;
+	}
+
+	/**
+	 * Search all keys from a region of text, and mark the found keys.
+	 * @param text The search text.
+	 * @param start The start position for search.
+	 * @param end The end position (exclusive) for search.
+	 * @param found Indices of the found keys are set on it.
+	 */
+	public void search(CharSequence text, int start, int end, BitSet found) {
+		if(!isBuilt)
+			build();
+		long[] state = new long[wordCount];
+		for(int i=start;i<end;i++) {
+			int base = baseIndex(text.charAt(i));
+			if(base == -1) {
+				Arrays.fill(state, 0L);
+				continue;
+			}
+			for(int w=0;w<wordCount;w++) {
+				long d = ((state[w] << 1) | startMask[w]) & baseMask[w*4+base];
+				state[w] = d;
+				long accept = d & acceptMask[w];
+				while(accept != 0) {
+					found.set(acceptKey[w*MAX_KEY_LEN+Long.numberOfTrailingZeros(accept)]);
+					accept &= accept-1;
+				}
+			}
+		}
+	}
+}
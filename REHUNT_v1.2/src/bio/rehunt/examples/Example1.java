@@ -14,7 +14,6 @@ package bio.rehunt.examples;
 import java.util.*;
 
 import bio.rehunt.seq.Sequence;
-import bio.rehunt.rflp.RFLPprocess;
 import bio.rehunt.rflp.JudgeRFLP;
 
 /**
@@ -31,7 +30,6 @@ public class Example1 {
 		// judge the variation if can be recognized by restriction enzymes
 		//String seq = "TTAGCATCAGCATTTGCTGC[A/G/C/T]ATCGCTAACGGTGGATCTAC";
 		String seq ="GCGGCACGAGCAGACCCCTGTGTGCCGTCCTGTGGGCGCGGGGCGGCAGGGGAGGCGCACACCTGCTCCTTTGTGCAGCCTCCCCCCTCCCGCAAAGTTAAAGAGCAGGAAAGTCAGGATTCCTCGCTCGGCCCTGCCCTGCCGGCTGCTCCGCGCTCCGCTCCTCCCTGCGAGCGTGTGTGTGTGTCGGGGGTCCCTCCCCTCCTGGCTCTGGGGTCGGGCGCGCACCCCGCCCCGTAGCGCGGCCCCTCCCTGGCGAGCGCAACCCCATCCAGCGGGAGCGCGGAGCCGCGGCCGCGGGGAAGCATTAAGTTTATTCGCCTCAAAGTGACGCAAAAATTCTTCAAGAGCTCTTTGGCGGCGGCTATCTAGAGATCAGACCATGTGAGGGCCCGCGGGTACAAATACGGCCGCGCCGGCGCCCCTCCGCACAGCCAGCGCCGCCGGGTGCCTCGAGGGCGCGAGGCCAGCCCGCCTGCCCAGCCCGGGACCAGCCTCCC[C/T]GCGCAGCCTGGCAGGTGGGTCCGCTTTTCCTCTCCGCCTCGAACCCACGTTTCTTTCCAGACCTTCTTCCCCGCCTCGGGGAGGGGGATAGAACCGCTGCGCCCCACCGCCCTGCGAGGAGGCGAGGAGGTGCATGCGCCCCAGCGGTGGGCGCCGGATCCTGCCCCTGCGCCCTCCACGCTCAGCAAGAGCCAGAGCTGAAGCTGACCGGCCAGAGTGGGAGACGAGGAACGTGGAGTGCTCGAAGTGGGCGGGCGTAGGGGGCTCCTTTGTCTATTGTTGCAGGGGCTTTGCAACCTCTTGAGGACCCGTGAAAGACCCCTTAAAGAGGGTCTTGAGCAAAGTGCTGTCCTGCGCTTTGGGAAGAGTTGCTTGCTTTCGTTTCAACCCATGGTTTATGTTTGATCTTTACTTTGCTGTCATCGCGTGCAGGTGGCTTTATGCAAAGGGAGAGTTCTGGTTGACACAAATGCCCAGACAGCTAGAGAAATCTCTGAGTG";
-		RFLPprocess rflpProcess = new RFLPprocess();
 		// Sequence
 		Sequence sequence = new Sequence();
 		String seq_complementary = sequence.complementaryTrans(seq);
@@ -68,11 +66,11 @@ public class Example1 {
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation3: " + cutEnzymesList.get(3).toString());
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1: " + cutEnzymesList.get(4).toString());
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation2: " + cutEnzymesList.get(5).toString());
-				List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList.get(0), cutEnzymesList.get(1));
+				List<String> cutEnzymes_seq1 = judgeRFLP.getUniqueEnzymeNameList(0);
 				System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2 and variation3: " + cutEnzymes_seq1);
-				List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList.get(2), cutEnzymesList.get(3));
+				List<String> cutEnzymes_seq2 = judgeRFLP.getUniqueEnzymeNameList(1);
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1 and variation3: " + cutEnzymes_seq2);
-				List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList.get(4), cutEnzymesList.get(5));
+				List<String> cutEnzymes_seq3 = judgeRFLP.getUniqueEnzymeNameList(2);
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1 and variation2: " + cutEnzymes_seq3);
 			}
 			else if(cutEnzymesList.size() == 12) {
@@ -88,17 +86,13 @@ public class Example1 {
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation1: " + cutEnzymesList.get(9).toString());
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation2: " + cutEnzymesList.get(10).toString());
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation3: " + cutEnzymesList.get(11).toString());
-				List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList.get(0), cutEnzymesList.get(1));
-				cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymes_seq1, cutEnzymesList.get(2));
+				List<String> cutEnzymes_seq1 = judgeRFLP.getUniqueEnzymeNameList(0);
 				System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2, variation3 and variation4: " + cutEnzymes_seq1);
-				List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList.get(3), cutEnzymesList.get(4));
-				cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymes_seq2, cutEnzymesList.get(5));
+				List<String> cutEnzymes_seq2 = judgeRFLP.getUniqueEnzymeNameList(1);
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1, variation3 and variation4: " + cutEnzymes_seq2);
-				List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList.get(6), cutEnzymesList.get(7));
-				cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymes_seq3, cutEnzymesList.get(8));
+				List<String> cutEnzymes_seq3 = judgeRFLP.getUniqueEnzymeNameList(2);
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1, variation2 and variation4: " + cutEnzymes_seq3);
-				List<String> cutEnzymes_seq4 = rflpProcess.getSame(cutEnzymesList.get(9), cutEnzymesList.get(10));
-				cutEnzymes_seq4 = rflpProcess.getSame(cutEnzymes_seq4, cutEnzymesList.get(11));
+				List<String> cutEnzymes_seq4 = judgeRFLP.getUniqueEnzymeNameList(3);
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation1, variation2 and variation3: " + cutEnzymes_seq4);
 			}
 		}
@@ -124,11 +118,11 @@ public class Example1 {
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation3: " + cutEnzymesList_complementary.get(3).toString());
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1: " + cutEnzymesList_complementary.get(4).toString());
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation2: " + cutEnzymesList_complementary.get(5).toString());
-				List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList_complementary.get(0), cutEnzymesList_complementary.get(1));
+				List<String> cutEnzymes_seq1 = judgeRFLP_complementary.getUniqueEnzymeNameList(0);
 				System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2 and variation3: " + cutEnzymes_seq1);
-				List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList_complementary.get(2), cutEnzymesList_complementary.get(3));
+				List<String> cutEnzymes_seq2 = judgeRFLP_complementary.getUniqueEnzymeNameList(1);
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1 and variation3: " + cutEnzymes_seq2);
-				List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList_complementary.get(4), cutEnzymesList_complementary.get(5));
+				List<String> cutEnzymes_seq3 = judgeRFLP_complementary.getUniqueEnzymeNameList(2);
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1 and variation2: " + cutEnzymes_seq3);
 			}
 			else if(cutEnzymesList_complementary.size() == 12) {
@@ -144,17 +138,13 @@ public class Example1 {
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation1: " + cutEnzymesList_complementary.get(9).toString());
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation2: " + cutEnzymesList_complementary.get(10).toString());
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation3: " + cutEnzymesList_complementary.get(11).toString());
-				List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList_complementary.get(0), cutEnzymesList_complementary.get(1));
-				cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymes_seq1, cutEnzymesList_complementary.get(2));
+				List<String> cutEnzymes_seq1 = judgeRFLP_complementary.getUniqueEnzymeNameList(0);
 				System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2, variation3 and variation4: " + cutEnzymes_seq1);
-				List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList_complementary.get(3), cutEnzymesList_complementary.get(4));
-				cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymes_seq2, cutEnzymesList_complementary.get(5));
+				List<String> cutEnzymes_seq2 = judgeRFLP_complementary.getUniqueEnzymeNameList(1);
 				System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1, variation3 and variation4: " + cutEnzymes_seq2);
-				List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList_complementary.get(6), cutEnzymesList_complementary.get(7));
-				cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymes_seq3, cutEnzymesList_complementary.get(8));
+				List<String> cutEnzymes_seq3 = judgeRFLP_complementary.getUniqueEnzymeNameList(2);
 				System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1, variation2 and variation4: " + cutEnzymes_seq3);
-				List<String> cutEnzymes_seq4 = rflpProcess.getSame(cutEnzymesList_complementary.get(9), cutEnzymesList_complementary.get(10));
-				cutEnzymes_seq4 = rflpProcess.getSame(cutEnzymes_seq4, cutEnzymesList_complementary.get(11));
+				List<String> cutEnzymes_seq4 = judgeRFLP_complementary.getUniqueEnzymeNameList(3);
 				System.out.println("Restriction enzymes which can recognize variation4, but cannot recognize variation1, variation2 and variation3: " + cutEnzymes_seq4);
 			}
 		}
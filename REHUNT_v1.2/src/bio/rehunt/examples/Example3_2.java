@@ -14,7 +14,6 @@ package bio.rehunt.examples;
 import java.util.*;
 
 import bio.rehunt.seq.Sequence;
-import bio.rehunt.rflp.RFLPprocess;
 import bio.rehunt.rflp.JudgeRFLP;
 
 /**
@@ -32,7 +31,6 @@ public class Example3_2 {
 	public static void main(String args[]) {
 		// judge the variation if can be recognized by restriction enzymes
 		String seq = "TTAGCATCAGCATTTGCTGC[A/G/C]ATCGCTAACGGTGGATCTAC";
-		RFLPprocess rflpProcess = new RFLPprocess();
 		// Sequence
 		Sequence sequence = new Sequence();
 		String seq_complementary = sequence.complementaryTrans(seq);
@@ -55,11 +53,11 @@ public class Example3_2 {
 			System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation3: " + cutEnzymesList.get(3).toString());
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1: " + cutEnzymesList.get(4).toString());
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation2: " + cutEnzymesList.get(5).toString());
-			List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList.get(0), cutEnzymesList.get(1));
+			List<String> cutEnzymes_seq1 = judgeRFLP.getUniqueEnzymeNameList(0);
 			System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2 and variation3: " + cutEnzymes_seq1);
-			List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList.get(2), cutEnzymesList.get(3));
+			List<String> cutEnzymes_seq2 = judgeRFLP.getUniqueEnzymeNameList(1);
 			System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1 and variation3: " + cutEnzymes_seq2);
-			List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList.get(4), cutEnzymesList.get(5));
+			List<String> cutEnzymes_seq3 = judgeRFLP.getUniqueEnzymeNameList(2);
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1 and variation2: " + cutEnzymes_seq3);
 		}
 		else	// not variation sequence
@@ -78,11 +76,11 @@ public class Example3_2 {
 			System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation3: " + cutEnzymesList_complementary.get(3).toString());
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1: " + cutEnzymesList_complementary.get(4).toString());
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation2: " + cutEnzymesList_complementary.get(5).toString());
-			List<String> cutEnzymes_seq1 = rflpProcess.getSame(cutEnzymesList_complementary.get(0), cutEnzymesList_complementary.get(1));
+			List<String> cutEnzymes_seq1 = judgeRFLP_complementary.getUniqueEnzymeNameList(0);
 			System.out.println("Restriction enzymes which can recognize variation1, but cannot recognize variation2 and variation3: " + cutEnzymes_seq1);
-			List<String> cutEnzymes_seq2 = rflpProcess.getSame(cutEnzymesList_complementary.get(2), cutEnzymesList_complementary.get(3));
+			List<String> cutEnzymes_seq2 = judgeRFLP_complementary.getUniqueEnzymeNameList(1);
 			System.out.println("Restriction enzymes which can recognize variation2, but cannot recognize variation1 and variation3: " + cutEnzymes_seq2);
-			List<String> cutEnzymes_seq3 = rflpProcess.getSame(cutEnzymesList_complementary.get(4), cutEnzymesList_complementary.get(5));
+			List<String> cutEnzymes_seq3 = judgeRFLP_complementary.getUniqueEnzymeNameList(2);
 			System.out.println("Restriction enzymes which can recognize variation3, but cannot recognize variation1 and variation2: " + cutEnzymes_seq3);
 		}
 		else	// not variation sequence
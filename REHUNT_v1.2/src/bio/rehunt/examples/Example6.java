@@ -12,8 +12,10 @@
 package bio.rehunt.examples;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
-import bio.rehunt.thread.JudgeRFLPBatchThread;
+import bio.rehunt.thread.JudgeRFLPBatchEngine;
+import bio.rehunt.thread.JudgeRFLPResult;
 
 /**
  * REHUNT example 6.
@@ -22,7 +24,7 @@ import bio.rehunt.thread.JudgeRFLPBatchThread;
  * @since JDK1.8.0
  * Description:
  * 		High throughput analysis.
- * 		The multiple sequences can be analyzed by "JudgeRFLPBatchThread" class.
+ * 		The multiple sequences can be analyzed in parallel by "JudgeRFLPBatchEngine" class.
  * 		The function is useful for high throughput analysis.
  */
 public class Example6 {
@@ -47,21 +49,17 @@ public class Example6 {
 		seqList.add(seq_data_1);
 		seqList.add(seq_data_2);
 		seqList.add(seq_data_3);
-		JudgeRFLPBatchThread judgeRFLPBatchThread = new JudgeRFLPBatchThread(seqList);
-		judgeRFLPBatchThread.start();
-		boolean is_wait = true;
-		while(judgeRFLPBatchThread.getState() != Thread.State.TERMINATED) {
-			if(is_wait) {
-				System.out.println("Please waiting...");
-				is_wait = false;
-			}
-		}
-		List<Boolean> resultList = judgeRFLPBatchThread.getIsCutResultList();
+		JudgeRFLPBatchEngine judgeRFLPBatchEngine = new JudgeRFLPBatchEngine();
+		CompletableFuture<List<JudgeRFLPResult>> future = judgeRFLPBatchEngine.submit(seqList);
+		System.out.println("Please waiting...");
+		List<JudgeRFLPResult> results = future.join();	// wait for the results
+		judgeRFLPBatchEngine.shutdown();
+		List<Boolean> resultList = JudgeRFLPBatchEngine.getIsCutResultList(results);
 		for(int i=0;i<resultList.size();i++) {
 			boolean isCut = resultList.get(i).booleanValue();
 			System.out.println("+ strand for variation " + (i+1) + ": " + isCut);
 		}
-		List<List<List<String>>> cutEnzymesBatch = judgeRFLPBatchThread.getCutEnzymesBatch();
+		List<List<List<String>>> cutEnzymesBatch = JudgeRFLPBatchEngine.getCutEnzymesBatch(results);
 		for(int i=0;i<cutEnzymesBatch.size();i++) {
 			List<List<String>> cutEnzymesList = cutEnzymesBatch.get(i);
 			System.out.println("Restriction enzymes information for variation " + (i+1) + ": ");
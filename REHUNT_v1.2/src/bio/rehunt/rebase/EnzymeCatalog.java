@@ -0,0 +1,454 @@
+/*
+ * Program name: EnzymeCatalog.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Shared restriction enzyme catalog parsed once from REBASE link_parsrefs.txt.
+ */
+
+package bio.rehunt.rebase;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+
+/**
+ * Shared restriction enzyme catalog parsed once from REBASE link_parsrefs.txt.
+ * The catalog is loaded lazily on the first call of getInstance() and is immutable afterwards,
+ * so it can be read by many threads at the same time. Each enzyme record is addressed by its
+ * id, which is the order of the record in REBASE link_parsrefs.txt.
+ * <p>
+ * If the system property "rehunt.rebase.snapshot" names a snapshot file generated by
+ * EnzymeCatalogSnapshot, the catalog is mapped from the snapshot instead of parsing the text file.
+ * The snapshot records the size and the "REBASE version" header line of the link_parsrefs.txt it was generated from,
+ * and it is used only if they match the bundled link_parsrefs.txt, so an out-of-date snapshot falls back to the text file.
+ * Only the header of the bundled file is read to check them.
+ * The name index, the recognition sequence index and the references are built on first use.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public final class EnzymeCatalog {
+	/** Field index of "ENZYME NAME". */
+	public static final int ENZYME_NAME = 0;
+	/** Field index of "PROTOTYPE". */
+	public static final int PROTOTYPE = 1;
+	/** Field index of "MICROORGANISM". */
+	public static final int MICROORGANISM = 2;
+	/** Field index of "SOURCE". */
+	public static final int SOURCE = 3;
+	/** Field index of "RECOGNITION SEQUENCE". */
+	public static final int RECOGNITION = 4;
+	/** Field index of "METHYLATION SITE". */
+	public static final int METHYLATION = 5;
+	/** Field index of "COMMERCIAL AVAILABILITY". */
+	public static final int COMMERCIAL = 6;
+	/** Field index of "REFERENCES". */
+	public static final int REFERENCES = 7;
+	/** The number of fields of an enzyme record. */
+	public static final int FIELD_COUNT = 8;
+	/** System property of the snapshot file used by getInstance(). */
+	public static final String SNAPSHOT_PROPERTY = "rehunt.rebase.snapshot";
+
+	static final String REBASE_FILE = "/REBASE/link_parsrefs.txt";
+	private static final int VERSION_LINES = 20;	// header lines searched for "REBASE version"
+	private static volatile EnzymeCatalog instance = null;
+
+	private final EnzymeStore store;
+	private final long sourceSize;	// size of link_parsrefs.txt the catalog is parsed from
+	private final String sourceVersion;	// "REBASE version" line of link_parsrefs.txt the catalog is parsed from
+	private final EnzymeReference[] references;	// decoded references
+	private volatile Map<String, Integer> nameIndex = null;	// enzyme name -> id
+	private volatile Map<String, Integer> nameIndexIgnoreCase = null;	// upper case enzyme name -> id
+	private volatile Map<String, int[]> recognitionIndex = null;	// recognition sequence -> ids of isoschizomers
+
+	/**
+	 * Constructor for initialize EnzymeCatalog.
+	 * @param store Enzyme store.
+	 * @param sourceSize Size of link_parsrefs.txt the store is parsed from.
+	 * @param sourceVersion "REBASE version" line of link_parsrefs.txt the store is parsed from.
+	 */
+	private EnzymeCatalog(EnzymeStore store, long sourceSize, String sourceVersion) {
+		this.store = store;
+		this.sourceSize = sourceSize;
+		this.sourceVersion = sourceVersion;
+		this.references = new EnzymeReference[store.getReferenceTableSize()];
+	}
+
+	/**
+	 * Get the shared catalog. REBASE link_parsrefs.txt is parsed only once per JVM.
+	 * @return The shared enzyme catalog.
+	 * @throws IOException If REBASE link_parsrefs.txt can not be read.
+	 */
+	public static EnzymeCatalog getInstance() throws IOException {
+		EnzymeCatalog catalog = instance;
+		if(catalog == null) {
+			synchronized(EnzymeCatalog.class) {
+				catalog = instance;
+				if(catalog == null) {
+					String snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+					if(snapshot != null) {
+						try {
+							catalog = open(new File(snapshot));
+							if(!catalog.isFromSource())
+								throw new IOException("Catalog snapshot " + snapshot + " is out of date.");
+						}
+						catch(IOException e) {	// fall back to the text file
+							System.out.println("Exception Message: " + e.getMessage());
+							catalog = null;
+						}
+					}
+					if(catalog == null)
+						catalog = load(readSource(EnzymeCatalog.class.getResourceAsStream(REBASE_FILE)));
+					instance = catalog;
+				}
+			}
+		}
+		return catalog;
+	}
+
+	/**
+	 * Parse a catalog from REBASE link_parsrefs.txt format.
+	 * @param is Input stream of REBASE link_parsrefs.txt, it is closed after parsing.
+	 * @return The enzyme catalog.
+	 * @throws IOException If the stream can not be read.
+	 */
+	public static EnzymeCatalog load(InputStream is) throws IOException {
+		return load(readSource(is));
+	}
+
+	/**
+	 * Parse a catalog from the bytes of REBASE link_parsrefs.txt.
+	 */
+	private static EnzymeCatalog load(byte[] source) throws IOException {
+		return new EnzymeCatalog(TextEnzymeStore.parse(new ByteArrayInputStream(source)), source.length,
+				readVersion(new ByteArrayInputStream(source)));
+	}
+
+	/**
+	 * Judge if the catalog is parsed from the bundled REBASE link_parsrefs.txt, by its size and "REBASE version" line.
+	 * Only the header of the file is read.
+	 * @return True is the same size and version, and false is not.
+	 * @throws IOException If REBASE link_parsrefs.txt can not be read.
+	 */
+	boolean isFromSource() throws IOException {
+		URL url = EnzymeCatalog.class.getResource(REBASE_FILE);
+		if(url == null)
+			throw new FileNotFoundException("REBASE file not found: " + REBASE_FILE);
+		URLConnection connection = url.openConnection();
+		if(connection.getContentLengthLong() != sourceSize)
+			return false;
+		return sourceVersion.equals(readVersion(connection.getInputStream()));
+	}
+
+	/**
+	 * Read the "REBASE version" line from the header of REBASE link_parsrefs.txt, and close the stream.
+	 * @return The line without surrounding spaces, or "" if the header has no version line.
+	 */
+	private static String readVersion(InputStream is) throws IOException {
+		BufferedReader bfr = new BufferedReader(new InputStreamReader(is));
+		try {
+			String strLine;
+			for(int i=0;i<VERSION_LINES && (strLine=bfr.readLine()) != null;i++) {
+				strLine = strLine.trim();
+				if(strLine.startsWith("REBASE version"))
+					return strLine;
+			}
+			return "";
+		}
+		finally {
+			bfr.close();
+		}
+	}
+
+	/**
+	 * Read all bytes of REBASE link_parsrefs.txt, and close the stream.
+	 */
+	private static byte[] readSource(InputStream is) throws IOException {
+		if(is == null)
+			throw new FileNotFoundException("REBASE file not found: " + REBASE_FILE);
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(1 << 20);
+			byte[] buffer = new byte[65536];
+			int len;
+			while((len=is.read(buffer)) != -1)
+				baos.write(buffer, 0, len);
+			return baos.toByteArray();
+		}
+		finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Open a catalog from a snapshot file generated by EnzymeCatalogSnapshot.
+	 * @param snapshot Snapshot file.
+	 * @return The enzyme catalog.
+	 * @throws IOException If the file can not be read or is not a valid snapshot.
+	 */
+	public static EnzymeCatalog open(File snapshot) throws IOException {
+		EnzymeCatalogSnapshot store = EnzymeCatalogSnapshot.open(snapshot);
+		return new EnzymeCatalog(store, store.getSourceSize(), store.getSourceVersion());
+	}
+
+	/**
+	 * Get the size of REBASE link_parsrefs.txt the catalog is parsed from.
+	 * @return The size in bytes.
+	 */
+	long getSourceSize() {
+		return sourceSize;
+	}
+
+	/**
+	 * Get the "REBASE version" line of REBASE link_parsrefs.txt the catalog is parsed from.
+	 * @return The version line, or "" if the file has no version line.
+	 */
+	String getSourceVersion() {
+		return sourceVersion;
+	}
+
+	/**
+	 * Get the store of the catalog.
+	 * @return Enzyme store.
+	 */
+	EnzymeStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Get the number of enzymes in the catalog.
+	 * @return The number of enzymes.
+	 */
+	public int size() {
+		return store.size();
+	}
+
+	/**
+	 * Get enzyme id by enzyme name.
+	 * @param enzymeName Restriction enzyme name.
+	 * @return Enzyme id, or -1 if the enzyme name is not found.
+	 */
+	public int indexOf(String enzymeName) {
+		return indexOf(enzymeName, false);
+	}
+
+	/**
+	 * Get enzyme id by enzyme name.
+	 * @param enzymeName Restriction enzyme name.
+	 * @param ignoreCase True is to compare enzyme names case-insensitively, and false is not.
+	 * @return Enzyme id, or -1 if the enzyme name is not found.
+	 */
+	public int indexOf(String enzymeName, boolean ignoreCase) {
+		if(enzymeName == null)
+			return -1;
+		if(nameIndex == null)
+			buildNameIndex();
+		Integer id = null;
+		if(ignoreCase)
+			id = nameIndexIgnoreCase.get(enzymeName.toUpperCase(Locale.ENGLISH));
+		else
+			id = nameIndex.get(enzymeName);
+		if(id == null)
+			return -1;
+		return id.intValue();
+	}
+
+	/**
+	 * Build enzyme name indices.
+	 */
+	private synchronized void buildNameIndex() {
+		if(nameIndex != null)
+			return;
+		Map<String, Integer> index = new HashMap<String, Integer>(size() * 2);
+		Map<String, Integer> indexIgnoreCase = new HashMap<String, Integer>(size() * 2);
+		for(int id=0;id<size();id++) {
+			// the first record wins if a name appears more than once
+			String enzymeName = getEnzymeName(id);
+			index.putIfAbsent(enzymeName, id);
+			indexIgnoreCase.putIfAbsent(enzymeName.toUpperCase(Locale.ENGLISH), id);
+		}
+		nameIndexIgnoreCase = indexIgnoreCase;
+		nameIndex = index;
+	}
+
+	/**
+	 * Get enzyme information by enzyme id.
+	 * @param id Enzyme id.
+	 * @return A copy of enzyme information with eight fields.
+	 */
+	public String[] getEnzyme(int id) {
+		String[] data = new String[FIELD_COUNT];
+		for(int field=0;field<FIELD_COUNT;field++)
+			data[field] = store.get(field, id);
+		return data;
+	}
+
+	/**
+	 * Get a field of enzyme information by enzyme id.
+	 * @param id Enzyme id.
+	 * @param field Field index, such as ENZYME_NAME or RECOGNITION.
+	 * @return The field string.
+	 */
+	public String getField(int id, int field) {
+		if(field < 0 || field >= FIELD_COUNT)
+			throw new IndexOutOfBoundsException("Field index: " + field);
+		return store.get(field, id);
+	}
+
+	/**
+	 * Get "ENZYME NAME" by enzyme id.
+	 * @param id Enzyme id.
+	 * @return Enzyme name.
+	 */
+	public String getEnzymeName(int id) {
+		return store.get(ENZYME_NAME, id);
+	}
+
+	/**
+	 * Get the recognition sequence without special symbols by enzyme id.
+	 * @param id Enzyme id.
+	 * @return Recognition sequence filtered by RFLPprocess.removeResEnzymeSym, or "" if unknown.
+	 */
+	public String getEnzymeSeq(int id) {
+		return store.get(EnzymeStore.ENZYME_SEQ, id);
+	}
+
+	/**
+	 * Get the enzyme ids which share a recognition sequence, i.e. the prototype and its isoschizomers.
+	 * @param enzymeSeq Recognition sequence without special symbols.
+	 * @return Enzyme ids in the order of REBASE records, or an empty array if no enzyme has the recognition sequence.
+	 */
+	public int[] getRecognitionGroup(String enzymeSeq) {
+		int[] ids = getRecognitionIndex().get(enzymeSeq);
+		if(ids == null)
+			return new int[0];
+		return ids.clone();
+	}
+
+	/**
+	 * Get the isoschizomers of an enzyme, including the enzyme itself.
+	 * @param id Enzyme id.
+	 * @return Enzyme ids with the same recognition sequence in the order of REBASE records.
+	 */
+	public int[] getIsoschizomers(int id) {
+		return getRecognitionIndex().get(getEnzymeSeq(id)).clone();
+	}
+
+	/**
+	 * Get the number of distinct recognition sequences in the catalog.
+	 * @return The number of isoschizomer groups.
+	 */
+	public int getRecognitionGroupCount() {
+		return getRecognitionIndex().size();
+	}
+
+	/**
+	 * Get recognition sequence index, and build it on first use.
+	 * @return Map from recognition sequence to enzyme ids.
+	 */
+	private Map<String, int[]> getRecognitionIndex() {
+		Map<String, int[]> index = recognitionIndex;
+		if(index == null) {
+			synchronized(this) {
+				index = recognitionIndex;
+				if(index == null) {
+					Map<String, List<Integer>> groups = new HashMap<String, List<Integer>>();
+					for(int id=0;id<size();id++) {
+						String enzymeSeq = getEnzymeSeq(id);
+						List<Integer> group = groups.get(enzymeSeq);
+						if(group == null) {
+							group = new ArrayList<Integer>(4);
+							groups.put(enzymeSeq, group);
+						}
+						group.add(id);
+					}
+					// isoschizomer groups in the order of REBASE records
+					index = new HashMap<String, int[]>(groups.size() * 2);
+					for(Map.Entry<String, List<Integer>> entry : groups.entrySet()) {
+						List<Integer> group = entry.getValue();
+						int[] ids = new int[group.size()];
+						for(int i=0;i<ids.length;i++)
+							ids[i] = group.get(i);
+						index.put(entry.getKey(), ids);
+					}
+					recognitionIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Get the largest reference index in "References:" section.
+	 * @return The largest reference index.
+	 */
+	public int getReferenceCount() {
+		return references.length - 1;
+	}
+
+	/**
+	 * Get a reference by the index used in "REFERENCES" field.
+	 * @param index Reference index.
+	 * @return The reference, or null if the index is not found.
+	 */
+	public EnzymeReference getReference(int index) {
+		if(index < 0 || index >= references.length)
+			return null;
+		EnzymeReference reference = references[index];
+		if(reference == null) {	// racy single-check is fine, EnzymeReference is immutable
+			String strLine = store.getReferenceLine(index);
+			if(strLine == null)
+				return null;
+			reference = EnzymeReference.parse(strLine);
+			references[index] = reference;
+		}
+		return reference;
+	}
+
+	/**
+	 * Get the references of an enzyme from its "REFERENCES" field.
+	 * @param id Enzyme id.
+	 * @return Reference list in the order of "REFERENCES" field.
+	 */
+	public List<EnzymeReference> getReferences(int id) {
+		return getReferences(getField(id, REFERENCES));
+	}
+
+	/**
+	 * Get the references from a "REFERENCES" field string.
+	 * @param referenceIndices References indices string with distinguished symbol ','.
+	 * @return Reference list in the order of the indices. Unknown indices are skipped.
+	 */
+	public List<EnzymeReference> getReferences(String referenceIndices) {
+		List<EnzymeReference> referenceList = new ArrayList<EnzymeReference>();
+		if(referenceIndices == null)
+			return referenceList;
+		int start = 0;
+		for(int i=0;i<=referenceIndices.length();i++) {
+			if(i == referenceIndices.length() || referenceIndices.charAt(i) == ',') {
+				EnzymeReference reference = getReference(parseIndex(referenceIndices.substring(start, i)));
+				if(reference != null)
+					referenceList.add(reference);
+				start = i + 1;
+			}
+		}
+		return referenceList;
+	}
+
+	/**
+	 * Parse a reference index.
+	 * @param index Reference index string.
+	 * @return Reference index, or -1 if it is not a number.
+	 */
+	static int parseIndex(String index) {
+		try {
+			return Integer.parseInt(index.trim());
+		}
+		catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Program name: EnzymeCatalogSnapshot.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Precompiled binary snapshot of the REBASE enzyme catalog, loaded by memory mapping.
+ */
+
+package bio.rehunt.rebase;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Precompiled binary snapshot of the REBASE enzyme catalog, loaded by memory mapping.
+ * The snapshot is generated from REBASE link_parsrefs.txt and contains an enzyme table of
+ * nine columns (the eight REBASE fields and the recognition sequence without special symbols),
+ * a reference table and an interned string pool. The header records the size and "REBASE version" line of the link_parsrefs.txt
+ * the snapshot is generated from, so EnzymeCatalog can tell an out-of-date snapshot. Strings are decoded from the mapped file only
+ * when they are asked for.
+ * <p>
+ * Generate a snapshot by "java bio.rehunt.rebase.EnzymeCatalogSnapshot rebase.snapshot", and let
+ * EnzymeCatalog.getInstance() use it by setting the system property "rehunt.rebase.snapshot".
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public final class EnzymeCatalogSnapshot implements EnzymeStore {
+	private static final int MAGIC = 0x52484E54;	// "RHNT"
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 32;
+
+	private final ByteBuffer buffer;	// mapped snapshot file
+	private final int enzymeCount;
+	private final int referenceTableSize;
+	private final int poolCount;
+	private final long sourceSize;	// size of the source link_parsrefs.txt
+	private final int sourceVersion;	// string pool index of the "REBASE version" line of the source link_parsrefs.txt
+	private final int columnStart;	// position of enzyme table
+	private final int referenceStart;	// position of reference table
+	private final int offsetStart;	// position of string pool offsets
+	private final int dataStart;	// position of string pool bytes
+	private final String[] poolCache;	// decoded strings
+
+	/**
+	 * Constructor for initialize EnzymeCatalogSnapshot.
+	 * @param buffer Mapped snapshot file.
+	 * @throws IOException If the snapshot is not valid.
+	 */
+	private EnzymeCatalogSnapshot(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a REHUNT catalog snapshot.");
+		if(buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported catalog snapshot version: " + buffer.getInt(4));
+		enzymeCount = buffer.getInt(8);
+		referenceTableSize = buffer.getInt(12);
+		poolCount = buffer.getInt(16);
+		sourceSize = buffer.getLong(20);
+		sourceVersion = buffer.getInt(28);
+		columnStart = HEADER_SIZE;
+		referenceStart = columnStart + 4 * COLUMN_COUNT * enzymeCount;
+		offsetStart = referenceStart + 4 * referenceTableSize;
+		dataStart = offsetStart + 4 * (poolCount + 1);
+		if(enzymeCount < 0 || referenceTableSize < 0 || poolCount < 0 || dataStart > buffer.capacity() ||
+			dataStart + buffer.getInt(offsetStart + 4 * poolCount) != buffer.capacity() ||
+			sourceVersion < 0 || sourceVersion >= poolCount)
+			throw new IOException("Catalog snapshot is truncated.");
+		poolCache = new String[poolCount];
+	}
+
+	/**
+	 * Open a snapshot file by memory mapping.
+	 * @param file Snapshot file.
+	 * @return The snapshot.
+	 * @throws IOException If the file can not be read or is not a valid snapshot.
+	 */
+	public static EnzymeCatalogSnapshot open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new EnzymeCatalogSnapshot(buffer);
+		}
+		finally {
+			raf.close();	// the mapping stays valid after closing the channel
+		}
+	}
+
+	/**
+	 * Write the snapshot of an enzyme catalog.
+	 * @param catalog Enzyme catalog.
+	 * @param file Snapshot file.
+	 * @throws IOException If the file can not be written.
+	 */
+	public static void write(EnzymeCatalog catalog, File file) throws IOException {
+		EnzymeStore store = catalog.getStore();
+		int enzymeCount = store.size();
+		int referenceTableSize = store.getReferenceTableSize();
+		// intern strings
+		Map<String, Integer> poolIndex = new HashMap<String, Integer>();
+		List<String> pool = new ArrayList<String>();
+		int[] columns = new int[COLUMN_COUNT * enzymeCount];
+		for(int column=0;column<COLUMN_COUNT;column++) {
+			for(int id=0;id<enzymeCount;id++)
+				columns[column * enzymeCount + id] = intern(store.get(column, id), poolIndex, pool);
+		}
+		int sourceVersion = intern(catalog.getSourceVersion(), poolIndex, pool);
+		int[] references = new int[referenceTableSize];
+		for(int index=0;index<referenceTableSize;index++) {
+			String strLine = store.getReferenceLine(index);
+			references[index] = strLine == null ? -1 : intern(strLine, poolIndex, pool);
+		}
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(enzymeCount);
+			dos.writeInt(referenceTableSize);
+			dos.writeInt(pool.size());
+			dos.writeLong(catalog.getSourceSize());
+			dos.writeInt(sourceVersion);
+			for(int i=0;i<columns.length;i++)
+				dos.writeInt(columns[i]);
+			for(int i=0;i<references.length;i++)
+				dos.writeInt(references[i]);
+			byte[][] bytes = new byte[pool.size()][];
+			int offset = 0;
+			for(int i=0;i<bytes.length;i++) {
+				bytes[i] = pool.get(i).getBytes(StandardCharsets.UTF_8);
+				dos.writeInt(offset);
+				offset += bytes[i].length;
+			}
+			dos.writeInt(offset);
+			for(int i=0;i<bytes.length;i++)
+				dos.write(bytes[i]);
+		}
+		finally {
+			dos.close();
+		}
+	}
+
+	/**
+	 * Get the index of a string in the string pool, and add it if it is not in the pool.
+	 */
+	private static int intern(String str, Map<String, Integer> poolIndex, List<String> pool) {
+		if(str == null)
+			str = "";
+		Integer index = poolIndex.get(str);
+		if(index == null) {
+			index = pool.size();
+			poolIndex.put(str, index);
+			pool.add(str);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Decode a string of the string pool.
+	 * @param index Index of the string pool.
+	 * @return The string.
+	 */
+	private String getPoolString(int index) {
+		String str = poolCache[index];
+		if(str == null) {	// racy single-check is fine, String is immutable
+			int start = buffer.getInt(offsetStart + 4 * index);
+			int end = buffer.getInt(offsetStart + 4 * (index + 1));
+			byte[] bytes = new byte[end - start];
+			ByteBuffer dup = buffer.duplicate();
+			dup.position(dataStart + start);
+			dup.get(bytes);
+			str = new String(bytes, StandardCharsets.UTF_8);
+			poolCache[index] = str;
+		}
+		return str;
+	}
+
+	/**
+	 * Get the size of link_parsrefs.txt the snapshot is generated from.
+	 * @return The size in bytes.
+	 */
+	long getSourceSize() {
+		return sourceSize;
+	}
+
+	/**
+	 * Get the "REBASE version" line of link_parsrefs.txt the snapshot is generated from.
+	 * @return The version line.
+	 */
+	String getSourceVersion() {
+		return getPoolString(sourceVersion);
+	}
+
+	public int size() {
+		return enzymeCount;
+	}
+
+	public String get(int column, int id) {
+		if(id < 0 || id >= enzymeCount)
+			throw new IndexOutOfBoundsException("Enzyme id: " + id);
+		return getPoolString(buffer.getInt(columnStart + 4 * (column * enzymeCount + id)));
+	}
+
+	public int getReferenceTableSize() {
+		return referenceTableSize;
+	}
+
+	public String getReferenceLine(int index) {
+		int poolIndex = buffer.getInt(referenceStart + 4 * index);
+		if(poolIndex == -1)
+			return null;
+		return getPoolString(poolIndex);
+	}
+
+	/**
+	 * Generate a snapshot file from REBASE link_parsrefs.txt.
+	 * @param args args[0] is the snapshot file.
+	 * @throws IOException IOException
+	 */
+	public static void main(String args[]) throws IOException {
+		if(args.length < 1) {
+			System.out.println("Usage: java bio.rehunt.rebase.EnzymeCatalogSnapshot <snapshot file>");
+			return;
+		}
+		long start = System.currentTimeMillis();
+		EnzymeCatalog catalog = EnzymeCatalog.load(EnzymeCatalog.class.getResourceAsStream(EnzymeCatalog.REBASE_FILE));
+		File file = new File(args[0]);
+		write(catalog, file);
+		System.out.println("Write " + catalog.size() + " enzymes to " + file + " (" + file.length() + " bytes) in " +
+				(System.currentTimeMillis()-start) + " ms.");
+	}
+}
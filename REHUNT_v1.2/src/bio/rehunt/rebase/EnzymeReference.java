@@ -0,0 +1,207 @@
+/*
+ * Program name: EnzymeReference.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		A reference entry of REBASE "References:" section.
+ */
+
+package bio.rehunt.rebase;
+
+/**
+ * A reference entry of REBASE "References:" section.
+ * A reference is a journal article (&lt;J&gt;), a book (&lt;B&gt;) or an unpublished observation (&lt;U&gt;).
+ * Fields which do not appear in the entry are null.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public final class EnzymeReference {
+	/** Reference type of journal article. */
+	public static final int JOURNAL = 0;
+	/** Reference type of book. */
+	public static final int BOOK = 1;
+	/** Reference type of unpublished observation. */
+	public static final int UNPUBLISHED = 2;
+
+	private final int index;
+	private final int type;
+	private final String authors;
+	private final String year;
+	private final String journal;	// journal name or book title
+	private final String publisher;
+	private final String volume;
+	private final String pages;
+	private final String unpublish;
+
+	/**
+	 * Constructor for initialize EnzymeReference.
+	 */
+	private EnzymeReference(int index, int type, String authors, String year, String journal,
+			String publisher, String volume, String pages, String unpublish) {
+		this.index = index;
+		this.type = type;
+		this.authors = authors;
+		this.year = year;
+		this.journal = journal;
+		this.publisher = publisher;
+		this.volume = volume;
+		this.pages = pages;
+		this.unpublish = unpublish;
+	}
+
+	/**
+	 * Parse a line of REBASE "References:" section, such as "2.	&lt;AUTHORS&gt;...	&lt;J&gt;	&lt;YEAR&gt;1994	&lt;JOURNAL&gt;...".
+	 * @param strLine Reference line.
+	 * @return The reference, or null if the line is not a reference entry.
+	 */
+	static EnzymeReference parse(String strLine) {
+		int dotPos = strLine.indexOf('.');
+		int authorsPos = strLine.indexOf("<AUTHORS>");
+		if(dotPos <= 0 || authorsPos == -1)
+			return null;
+		int index = 0;
+		try {
+			index = Integer.parseInt(strLine.substring(0, dotPos).trim());
+		}
+		catch(NumberFormatException e) {
+			return null;
+		}
+		int type = JOURNAL;
+		int typePos = strLine.indexOf("<J>");
+		if(typePos == -1) {
+			type = BOOK;
+			typePos = strLine.indexOf("<B>");
+		}
+		if(typePos == -1) {
+			type = UNPUBLISHED;
+			typePos = strLine.indexOf("<U>");
+		}
+		if(typePos == -1)
+			return null;
+		String authors = strLine.substring(authorsPos+9, typePos).trim();
+		if(type == UNPUBLISHED)
+			return new EnzymeReference(index, type, authors, null, null, null, null, null, strLine.substring(typePos+3).trim());
+		String journal = getTagValue(strLine, type == JOURNAL ? "<JOURNAL>" : "<BOOK>");
+		return new EnzymeReference(index, type, authors, getTagValue(strLine, "<YEAR>"), journal,
+				getTagValue(strLine, "<PUBLISHER>"), getTagValue(strLine, "<VOLUME>"), getTagValue(strLine, "<PAGES>"), null);
+	}
+
+	/**
+	 * Get the value after a tag and before the next tag.
+	 * @param strLine Reference line.
+	 * @param tag Tag, such as "&lt;YEAR&gt;".
+	 * @return Tag value, or null if the tag is not found.
+	 */
+	private static String getTagValue(String strLine, String tag) {
+		int tagPos = strLine.indexOf(tag);
+		if(tagPos == -1)
+			return null;
+		int start = tagPos + tag.length();
+		int end = strLine.indexOf('<', start);
+		if(end == -1)
+			end = strLine.length();
+		return strLine.substring(start, end).trim();
+	}
+
+	/**
+	 * Get the reference index used by "REFERENCES" field of enzyme information.
+	 * @return Reference index.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Get reference type.
+	 * @return JOURNAL, BOOK or UNPUBLISHED.
+	 */
+	public int getType() {
+		return type;
+	}
+
+	/**
+	 * Judge if the reference is published.
+	 * @return If the reference is a journal article or a book then return true, else return false.
+	 */
+	public boolean isPublished() {
+		return type != UNPUBLISHED;
+	}
+
+	/**
+	 * Get authors.
+	 * @return Authors.
+	 */
+	public String getAuthors() {
+		return authors;
+	}
+
+	/**
+	 * Get publication year.
+	 * @return Year, or null if unpublished.
+	 */
+	public String getYear() {
+		return year;
+	}
+
+	/**
+	 * Get journal name, or book title for a book.
+	 * @return Journal name or book title, or null if unpublished.
+	 */
+	public String getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Get publisher of a book.
+	 * @return Publisher, or null if not given.
+	 */
+	public String getPublisher() {
+		return publisher;
+	}
+
+	/**
+	 * Get volume.
+	 * @return Volume, or null if not given.
+	 */
+	public String getVolume() {
+		return volume;
+	}
+
+	/**
+	 * Get pages.
+	 * @return Pages, or null if not given.
+	 */
+	public String getPages() {
+		return pages;
+	}
+
+	/**
+	 * Get the note of an unpublished observation.
+	 * @return Note, such as "Unpublished observations.", or null if published.
+	 */
+	public String getUnpublished() {
+		return unpublish;
+	}
+
+	/**
+	 * Get reference string, such as "Authors, (year) journal, vol. volume, pp. pages.".
+	 * @return Reference string.
+	 */
+	public String toString() {
+		if(type == UNPUBLISHED)
+			return authors + ", " +  unpublish;
+		StringBuffer strBuff = new StringBuffer();
+		strBuff.append(authors).append(", (").append(year).append(") ").append(journal);
+		if(publisher != null)
+			strBuff.append(", ").append(publisher);
+		if(volume != null)
+			strBuff.append(", vol. ").append(volume);
+		if(pages != null)
+			strBuff.append(", pp. ").append(pages);
+		strBuff.append(".");
+		return strBuff.toString();
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Program name: EnzymeStore.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Storage of the enzyme records and references behind EnzymeCatalog.
+ */
+
+package bio.rehunt.rebase;
+
+/**
+ * Storage of the enzyme records and references behind EnzymeCatalog.
+ * The records are stored by column, so a field of an enzyme is fetched only when it is asked for.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+interface EnzymeStore {
+	/** Column index of the recognition sequence without special symbols, after the eight REBASE fields. */
+	int ENZYME_SEQ = EnzymeCatalog.FIELD_COUNT;
+	/** The number of columns. */
+	int COLUMN_COUNT = EnzymeCatalog.FIELD_COUNT + 1;
+
+	/**
+	 * Get the number of enzymes.
+	 * @return The number of enzymes.
+	 */
+	int size();
+
+	/**
+	 * Get a column value of an enzyme.
+	 * @param column Column index, a REBASE field index or ENZYME_SEQ.
+	 * @param id Enzyme id.
+	 * @return Column value.
+	 */
+	String get(int column, int id);
+
+	/**
+	 * Get the size of the reference table, which is the largest reference index plus one.
+	 * @return The size of the reference table.
+	 */
+	int getReferenceTableSize();
+
+	/**
+	 * Get the line of "References:" section by reference index.
+	 * @param index Reference index.
+	 * @return Reference line, or null if the index is not used.
+	 */
+	String getReferenceLine(int index);
+}
@@ -13,8 +13,6 @@ package bio.rehunt.rebase;
 import java.io.*;
 import java.util.*;
 
-import bio.rehunt.rflp.RFLPprocess;
-
 /**
  * Search the restriction enzyme related information using enzyme name from REBASE link_parsrefs.txt.
  * @author Yu-Huei Cheng
@@ -22,252 +20,104 @@ import bio.rehunt.rflp.RFLPprocess;
  * @since JDK1.8.0
  */
 public class REBASE {
-	// reference
-	private String authors = null;
-	private String year = null;
-	private String journal = null;
-	private String volume = null;
-	private String page = null;
-	private String unpublish = null;
-
-	// file read
-	private InputStreamReader isr = null;
-	private BufferedReader bfr = null;
-
 	/**
-	 * Get file reader for REBASE link_parsrefs.txt.
-	 * @return If success return true, else return false.
+	 * Search enzyme information using enzyme name.
+	 * @param enzymeName Restriction enzyme name.
+	 * @return Enzyme information, or an array of "" if the enzyme name is not found.
+	 * @throws IOException IOException
 	 */
-	public boolean getRebase() {
-		try {
-			isr = new InputStreamReader(getClass().getResourceAsStream("/REBASE/link_parsrefs.txt"));
-			bfr = new BufferedReader(isr);
-		}
-		catch(Exception e) {
-			return false;
-		}
-		return true;
+	public String[] searchEnzyme(String enzymeName) throws IOException {
+		return searchEnzyme(enzymeName, false);
 	}
 
 	/**
 	 * Search enzyme information using enzyme name.
 	 * @param enzymeName Restriction enzyme name.
-	 * @return Enzyme information.
+	 * @param ignoreCase True is to compare enzyme names case-insensitively, and false is not.
+	 * @return Enzyme information, or an array of "" if the enzyme name is not found.
 	 * @throws IOException IOException
 	 */
-	public String[] searchEnzyme(String enzymeName) throws IOException {
-		boolean isSuccessRebase = getRebase();
-		if(!isSuccessRebase)
-			return null;
-		String[] data = new String[8];
-		String strLine = "";
-		int count = 0;
-		while((strLine=bfr.readLine()) != null) {
-			if(!strLine.equals("")) {
-				if(strLine.charAt(0) != '<')
-					continue;
-				else {
-					count++;
-					// read data
-					switch(strLine.charAt(1)) {
-						case '1':
-							data[0] = strLine.substring(3);
-							break;
-						case '2':
-							data[1] = strLine.substring(3);
-							break;
-						case '3':
-							data[2] = strLine.substring(3);
-							break;
-						case '4':
-							data[3] = strLine.substring(3);
-							break;
-						case '5':
-							data[4] = strLine.substring(3);
-							break;
-						case '6':
-							data[5] = strLine.substring(3);
-							break;
-						case '7':
-							data[6] = strLine.substring(3);
-							break;
-						case '8':
-							data[7] = strLine.substring(3);
-							break;
-						default:
-							count--;
-					}
-					if(enzymeName.equals(data[0]) && count==8)
-						break;
-				}
-			}
-			else {	// clear
-				data[0] = "";
-				data[1] = "";
-				data[2] = "";
-				data[3] = "";
-				data[4] = "";
-				data[5] = "";
-				data[6] = "";
-				data[7] = "";
-				count = 0;
-			}
-		}
-		setClose();
-		if(data[0] == null)
-			return null;
-		return data;
+	public String[] searchEnzyme(String enzymeName, boolean ignoreCase) throws IOException {
+		EnzymeCatalog catalog = EnzymeCatalog.getInstance();
+		int id = catalog.indexOf(enzymeName, ignoreCase);
+		if(id == -1)
+			return new String[] {"", "", "", "", "", "", "", ""};
+		return catalog.getEnzyme(id);
 	}
 
 	/**
 	 * Search enzyme information using enzyme recognition sequence.
-	 * @param recognition Restriction enzyme recognition sequence.
-	 * @return Enzyme information list.
+	 * @param recognition Restriction enzyme recognition sequence without special symbols, such as "GCWGC".
+	 * @return Enzyme information list of the prototype and its isoschizomers, or null if not found.
 	 * @throws IOException IOException
 	 */
 	public List<String[]> searchRecognition(String recognition) throws IOException {
-		boolean isSuccessRebase = getRebase();
-		if(!isSuccessRebase)
+		EnzymeCatalog catalog = EnzymeCatalog.getInstance();
+		int[] ids = catalog.getRecognitionGroup(recognition);
+		if(ids.length == 0)
 			return null;
-		RFLPprocess process = new RFLPprocess();
 		List<String[]> dataList = new LinkedList<String[]>();
-		String[] data = new String[8];
-		String strLine = "";
-		int count = 0;
-		while((strLine=bfr.readLine()) != null) {
-			if(!strLine.equals("")) {
-				if(strLine.charAt(0) != '<')
-					continue;
-				else {
-					count++;
-					// read data
-					switch(strLine.charAt(1)) {
-						case '1':
-							data[0] = strLine.substring(3);
-							break;
-						case '2':
-							data[1] = strLine.substring(3);
-							break;
-						case '3':
-							data[2] = strLine.substring(3);
-							break;
-						case '4':
-							data[3] = strLine.substring(3);
-							break;
-						case '5':
-							data[4] = strLine.substring(3);
-							break;
-						case '6':
-							data[5] = strLine.substring(3);
-							break;
-						case '7':
-							data[6] = strLine.substring(3);
-							break;
-						case '8':
-							data[7] = strLine.substring(3);
-							break;
-						default:
-							count--;
-					}
-					if(data[4] != null && count==8) {
-						if(recognition.equals(process.removeResEnzymeSym(data[4]))) {
-							String[] dataCopy = data.clone();
-							dataList.add(dataCopy);
-						}
-					}
-				}
-			}
-			else {	// clear
-				data[0] = "";
-				data[1] = "";
-				data[2] = "";
-				data[3] = "";
-				data[4] = "";
-				data[5] = "";
-				data[6] = "";
-				data[7] = "";
-				count = 0;
+		for(int i=0;i<ids.length;i++)
+			dataList.add(catalog.getEnzyme(ids[i]));
+		return dataList;
+	}
+
+	/**
+	 * Group restriction enzyme names by recognition sequence, so that isoschizomers are collapsed into one group.
+	 * @param enzymeName_list Restriction enzyme name list.
+	 * @return Map from recognition sequence (without special symbols) to enzyme names, in the order of first appearance.
+	 * Enzyme names which are not found in REBASE are skipped.
+	 * @throws IOException IOException
+	 */
+	public Map<String, List<String>> groupByRecognition(Collection<String> enzymeName_list) throws IOException {
+		EnzymeCatalog catalog = EnzymeCatalog.getInstance();
+		Map<String, List<String>> groups = new LinkedHashMap<String, List<String>>();
+		for(String enzymeName : enzymeName_list) {
+			int id = catalog.indexOf(enzymeName);
+			if(id == -1)
+				continue;
+			String enzymeSeq = catalog.getEnzymeSeq(id);
+			List<String> group = groups.get(enzymeSeq);
+			if(group == null) {
+				group = new LinkedList<String>();
+				groups.put(enzymeSeq, group);
 			}
+			group.add(enzymeName);
 		}
-		setClose();
-		if(dataList.size() == 0)
-			return null;
-		return dataList;
+		return groups;
 	}
 
 	/**
 	 * Get "REFERENCES" string.
 	 * @param index Index of restriction enzyme reference.
-	 * @return Enzyme reference string.
+	 * @return Enzyme reference string, or "" if the index is not found.
 	 * @throws IOException IOException
 	 */
 	public String getReferenceStr(String index) throws IOException {
-		boolean isSuccessRebase = getRebase();
-		if(!isSuccessRebase)
-			return null;
-		String data = "";
-		String strLine = "";
-		boolean start = false;
-		while((strLine=bfr.readLine())!=null) {
-			if(!start) {
-				if(!strLine.equals("References:"))
-					continue;
-				else {
-					start = true;
-					continue;
-				}
-			}
-			else {
-				if(!strLine.equals("")) {
-					//System.out.println(strLine);
-					if(strLine.substring(0, strLine.indexOf('.')).equals(index)) {
-						int authorsPos = strLine.indexOf("<AUTHORS>");
-						int jPos = strLine.indexOf("<J>");
-						int yearPos = 0;
-						int journalPos = 0;
-						int volumePos = 0;
-						int pagePos = 0;
-						int uPos = 0;
-						if(jPos != -1) {
-							yearPos = strLine.indexOf("<YEAR>");
-							journalPos = strLine.indexOf("<JOURNAL>");
-							volumePos = strLine.indexOf("<VOLUME>");
-							pagePos = strLine.indexOf("<PAGES>");
-							authors = strLine.substring(authorsPos+9, jPos).trim();
-							if(yearPos != -1) {
-								if(strLine.indexOf("<", yearPos+6) != -1)
-									year = strLine.substring(yearPos+6, strLine.indexOf("<", yearPos+6)).trim();
-								else
-									year = strLine.substring(yearPos+6).trim();
-							}
-							if(journalPos != -1) {
-								if(strLine.indexOf("<", journalPos+9) != -1)
-									journal = strLine.substring(journalPos+9, strLine.indexOf("<", journalPos+9)).trim();
-								else
-									journal = strLine.substring(journalPos+9).trim();
-							}
-							if(volumePos != -1) {
-								if(strLine.indexOf("<", volumePos+8) != -1)
-									volume = strLine.substring(volumePos+8, strLine.indexOf("<", volumePos+8)).trim();
-								else
-									volume = strLine.substring(volumePos+8).trim();
-							}
-							if(volumePos != -1)
-								page = strLine.substring(pagePos+7).trim();
-							data = authors + ", (" +  year + ") " + journal + ", vol. " + volume + ", pp. " + page + ".";
-						}
-						else {
-							uPos = strLine.indexOf("<U>");
-							authors = strLine.substring(authorsPos+9, uPos).trim();
-							unpublish = strLine.substring(uPos+3).trim();
-							data = authors + ", " +  unpublish;
-						}
-					}
-				}
-			}
-		}
-		setClose();
-		return data;
+		EnzymeReference reference = getReference(index);
+		if(reference == null)
+			return "";
+		return reference.toString();
+	}
+
+	/**
+	 * Get the reference by index.
+	 * @param index Index of restriction enzyme reference.
+	 * @return Enzyme reference, or null if the index is not found.
+	 * @throws IOException IOException
+	 */
+	public EnzymeReference getReference(String index) throws IOException {
+		return EnzymeCatalog.getInstance().getReference(EnzymeCatalog.parseIndex(index));
+	}
+
+	/**
+	 * Get the references of enzyme information from its "REFERENCES" field.
+	 * @param data Enzyme information array.
+	 * @return Enzyme reference list.
+	 * @throws IOException IOException
+	 */
+	public List<EnzymeReference> getReferenceList(String[] data) throws IOException {
+		return EnzymeCatalog.getInstance().getReferences(data[7]);
 	}
 
 	/**
@@ -342,19 +192,6 @@ public class REBASE {
 		return data[7];
 	}
 
-	/**
-	 * Close REBASE database file.
-	 * @throws IOException IOException
-	 */
-	// close file
-	public void setClose() throws IOException {
-		// close file
-		if(bfr != null)
-			bfr.close();
-		if(isr != null)
-			isr.close();
-	}
-
 /*	public static void main(String args[]) throws IOException {
 //		// search from enzyme name
 //		REBASE rebase = new REBASE();
@@ -0,0 +1,116 @@
+/*
+ * Program name: TextEnzymeStore.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Enzyme store parsed from REBASE link_parsrefs.txt text format.
+ */
+
+package bio.rehunt.rebase;
+
+import java.io.*;
+import java.util.*;
+
+import bio.rehunt.rflp.RFLPprocess;
+
+/**
+ * Enzyme store parsed from REBASE link_parsrefs.txt text format.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class TextEnzymeStore implements EnzymeStore {
+	private final String[][] columns;	// columns[column][id]
+	private final String[] referenceLines;	// referenceLines[index]
+
+	/**
+	 * Constructor for initialize TextEnzymeStore.
+	 * @param records Enzyme records.
+	 * @param referenceLines Reference lines indexed by reference index.
+	 */
+	private TextEnzymeStore(List<String[]> records, String[] referenceLines) {
+		RFLPprocess process = new RFLPprocess();
+		this.columns = new String[COLUMN_COUNT][records.size()];
+		for(int id=0;id<records.size();id++) {
+			String[] data = records.get(id);
+			for(int field=0;field<EnzymeCatalog.FIELD_COUNT;field++)
+				columns[field][id] = data[field];
+			columns[ENZYME_SEQ][id] = process.removeResEnzymeSym(data[EnzymeCatalog.RECOGNITION]);
+		}
+		this.referenceLines = referenceLines;
+	}
+
+	/**
+	 * Parse REBASE link_parsrefs.txt format.
+	 * @param is Input stream of REBASE link_parsrefs.txt, it is closed after parsing.
+	 * @return The enzyme store.
+	 * @throws IOException If the stream can not be read.
+	 */
+	static TextEnzymeStore parse(InputStream is) throws IOException {
+		List<String[]> recordList = new ArrayList<String[]>(5000);
+		Map<Integer, String> referenceMap = new HashMap<Integer, String>(8000);
+		int maxIndex = 0;
+		BufferedReader bfr = new BufferedReader(new InputStreamReader(is));
+		try {
+			String[] data = new String[EnzymeCatalog.FIELD_COUNT];
+			String strLine = "";
+			int count = 0;
+			boolean isReference = false;
+			while((strLine=bfr.readLine()) != null) {
+				if(isReference) {
+					int dotPos = strLine.indexOf('.');
+					if(dotPos > 0) {
+						int index = EnzymeCatalog.parseIndex(strLine.substring(0, dotPos));
+						if(index >= 0) {
+							referenceMap.put(index, strLine);
+							maxIndex = Math.max(maxIndex, index);
+						}
+					}
+				}
+				else if(strLine.equals("References:"))
+					isReference = true;
+				else if(strLine.equals("")) {	// clear
+					data = new String[EnzymeCatalog.FIELD_COUNT];
+					count = 0;
+				}
+				else if(strLine.charAt(0) == '<' && strLine.length() > 2 && strLine.charAt(2) == '>') {
+					int field = strLine.charAt(1) - '1';
+					if(field >= 0 && field < EnzymeCatalog.FIELD_COUNT) {
+						data[field] = strLine.substring(3);
+						count++;
+						if(count == EnzymeCatalog.FIELD_COUNT) {
+							recordList.add(data);
+							data = new String[EnzymeCatalog.FIELD_COUNT];
+							count = 0;
+						}
+					}
+				}
+			}
+		}
+		finally {
+			bfr.close();
+		}
+		String[] referenceLines = new String[maxIndex+1];
+		for(Map.Entry<Integer, String> entry : referenceMap.entrySet())
+			referenceLines[entry.getKey()] = entry.getValue();
+		return new TextEnzymeStore(recordList, referenceLines);
+	}
+
+	public int size() {
+		return columns[0].length;
+	}
+
+	public String get(int column, int id) {
+		return columns[column][id];
+	}
+
+	public int getReferenceTableSize() {
+		return referenceLines.length;
+	}
+
+	public String getReferenceLine(int index) {
+		return referenceLines[index];
+	}
+}
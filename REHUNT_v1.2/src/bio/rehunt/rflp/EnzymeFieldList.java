@@ -0,0 +1,48 @@
+/*
+ * Program name: EnzymeFieldList.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Read-only list of an enzyme field for a set of enzyme ids.
+ */
+
+package bio.rehunt.rflp;
+
+import java.util.*;
+
+import bio.rehunt.rebase.EnzymeCatalog;
+
+/**
+ * Read-only list of an enzyme field for a set of enzyme ids.
+ * The field of an enzyme is fetched from EnzymeCatalog only when the element is read.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class EnzymeFieldList extends AbstractList<String> implements RandomAccess {
+	private final EnzymeCatalog catalog;
+	private final int[] ids;
+	private final int field;
+
+	/**
+	 * Constructor for initialize EnzymeFieldList.
+	 * @param catalog Enzyme catalog.
+	 * @param ids Enzyme ids.
+	 * @param field Field index of EnzymeCatalog.
+	 */
+	EnzymeFieldList(EnzymeCatalog catalog, int[] ids, int field) {
+		this.catalog = catalog;
+		this.ids = ids;
+		this.field = field;
+	}
+
+	public String get(int index) {
+		return catalog.getField(ids[index], field);
+	}
+
+	public int size() {
+		return ids.length;
+	}
+}
@@ -0,0 +1,461 @@
+/*
+ * Program name: EnzymeKmerTable.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Precomputed table of the restriction enzymes recognizing every k-mer, loaded by memory mapping.
+ */
+
+package bio.rehunt.rflp;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import bio.rehunt.algorithm.ShiftAnd;
+import bio.rehunt.rebase.EnzymeCatalog;
+
+/**
+ * Precomputed table of the restriction enzymes recognizing every k-mer, loaded by memory mapping.
+ * For every k from kMin to kMax, the table has an entry for each of the 4^k k-mers of A, C, G and T, coded by 2 bits
+ * a base (A=0, C=1, G=2, T=3). An entry holds two enzyme sets: the enzymes whose recognition sequence is the k-mer,
+ * and the enzymes whose recognition sequence stands for the k-mer with its IUPAC codes. The recognition sequences
+ * with IUPAC codes are expanded once when the table is built, and the sets are stored once each.
+ * <p>
+ * A sequence is classified by one table lookup for each position and length instead of searching the recognition
+ * sequences. The complement of a k-mer is the code XOR (4^k - 1), so the enzymes of the complementary strand are
+ * looked up in the same table.
+ * <p>
+ * Generate a table by "java bio.rehunt.rflp.EnzymeKmerTable rebase.kmer", and let RFLP and JudgeRFLP use it by
+ * setting the system property "rehunt.kmer.table". If the file does not exist, is of another catalog, or does not cover
+ * the k-mers of DEFAULT_K_MIN to DEFAULT_K_MAX, it is built and written once by the first search.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public final class EnzymeKmerTable {
+	private static final int MAGIC = 0x52484B54;	// "RHKT"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	/** The maximum k of a table. */
+	public static final int MAX_K = 12;
+	/** The default minimum k, the same as the default minimum enzyme length of RFLP. */
+	public static final int DEFAULT_K_MIN = 4;
+	/** The default maximum k, the same as the default maximum enzyme length of RFLP. */
+	public static final int DEFAULT_K_MAX = 10;
+	/** System property of the table file used by RFLP. */
+	public static final String TABLE_PROPERTY = "rehunt.kmer.table";
+
+	private static final Map<EnzymeCatalog, EnzymeKmerTable[]> cache = new WeakHashMap<EnzymeCatalog, EnzymeKmerTable[]>();
+	private static volatile CatalogTable lastTable = null;	// table of the last catalog, read without the lock
+
+	private final ByteBuffer buffer;	// mapped table file
+	private final int enzymeCount;
+	private final int fingerprint;	// fingerprint of the recognition sequences of the catalog
+	private final int kMin;
+	private final int kMax;
+	private final int[] entryStart;	// k -> position of the entries of k
+	private final int setStart;	// position of the set offsets
+	private final int idStart;	// position of the enzyme ids of the sets
+
+	/**
+	 * The shared table of a catalog.
+	 */
+	private static final class CatalogTable {
+		final EnzymeCatalog catalog;
+		final EnzymeKmerTable table;
+
+		CatalogTable(EnzymeCatalog catalog, EnzymeKmerTable table) {
+			this.catalog = catalog;
+			this.table = table;
+		}
+	}
+
+	/**
+	 * Constructor for initialize EnzymeKmerTable.
+	 * @param buffer Mapped table file.
+	 * @throws IOException If the table is not valid.
+	 */
+	private EnzymeKmerTable(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a REHUNT k-mer table.");
+		if(buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported k-mer table version: " + buffer.getInt(4));
+		enzymeCount = buffer.getInt(8);
+		fingerprint = buffer.getInt(12);
+		kMin = buffer.getInt(16);
+		kMax = buffer.getInt(20);
+		int setCount = buffer.getInt(24);
+		int idCount = buffer.getInt(28);
+		if(kMin < 1 || kMax > MAX_K || kMin > kMax || setCount < 1 || idCount < 0)
+			throw new IOException("Bad k-mer table header.");
+		entryStart = new int[kMax+1];
+		long pos = HEADER_SIZE;
+		for(int k=kMin;k<=kMax;k++) {
+			entryStart[k] = (int)pos;
+			pos += 8l << (2*k);
+		}
+		setStart = (int)pos;
+		idStart = setStart + 4 * (setCount + 1);
+		if((long)idStart + 4l * idCount != buffer.capacity())
+			throw new IOException("K-mer table is truncated.");
+	}
+
+	/**
+	 * Open a table file by memory mapping.
+	 * @param file Table file.
+	 * @return The table.
+	 * @throws IOException If the file can not be read or is not a valid table.
+	 */
+	public static EnzymeKmerTable open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new EnzymeKmerTable(buffer);
+		}
+		finally {
+			raf.close();	// the mapping stays valid after closing the channel
+		}
+	}
+
+	/**
+	 * Get the shared table of a catalog from the file of the system property "rehunt.kmer.table".
+	 * The file is built if it does not exist, is of another catalog or does not cover DEFAULT_K_MIN to DEFAULT_K_MAX.
+	 * The file is read once for a catalog.
+	 * @param catalog Enzyme catalog.
+	 * @return The table, or null if the property is not set or the table can not be read or built.
+	 */
+	static EnzymeKmerTable getInstance(EnzymeCatalog catalog) {
+		CatalogTable last = lastTable;
+		if(last != null && last.catalog == catalog)
+			return last.table;
+		String path = System.getProperty(TABLE_PROPERTY);
+		if(path == null)
+			return null;
+		synchronized(cache) {
+			EnzymeKmerTable[] table = cache.get(catalog);
+			if(table == null) {
+				table = new EnzymeKmerTable[1];
+				try {
+					table[0] = load(catalog, new File(path));
+				}
+				catch(Exception e) {
+					System.out.println("Exception Message: " + e.getMessage());
+				}
+				cache.put(catalog, table);
+			}
+			lastTable = new CatalogTable(catalog, table[0]);
+			return table[0];
+		}
+	}
+
+	/**
+	 * Open the table file of a catalog, and build it first if it does not exist, is of another catalog or does not
+	 * cover DEFAULT_K_MIN to DEFAULT_K_MAX. A table of a narrower range would miss every search of the default
+	 * enzyme lengths of RFLP. The table is written into a temporary file of its own in the same directory and moved
+	 * into place, so the threads or processes building the same file do not write over each other.
+	 */
+	private static EnzymeKmerTable load(EnzymeCatalog catalog, File file) throws IOException {
+		if(file.exists()) {
+			EnzymeKmerTable table = open(file);
+			if(table.isOf(catalog) && table.kMin <= DEFAULT_K_MIN && table.kMax >= DEFAULT_K_MAX)
+				return table;
+		}
+		File temp = File.createTempFile(file.getName() + "-", ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			write(catalog, DEFAULT_K_MIN, DEFAULT_K_MAX, temp);
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			temp.delete();	// left only if it is not moved
+		}
+		return open(file);
+	}
+
+	/**
+	 * Judge if this table is built from the recognition sequences of a catalog.
+	 * @param catalog Enzyme catalog.
+	 * @return If the catalog has the same recognition sequences then return true, else return false.
+	 */
+	public boolean isOf(EnzymeCatalog catalog) {
+		return catalog.size() == enzymeCount && getFingerprint(catalog) == fingerprint;
+	}
+
+	/**
+	 * Get the fingerprint of the recognition sequences of a catalog.
+	 */
+	private static int getFingerprint(EnzymeCatalog catalog) {
+		int hash = catalog.size();
+		for(int id=0;id<catalog.size();id++)
+			hash = 31 * hash + catalog.getEnzymeSeq(id).hashCode();
+		return hash;
+	}
+
+	/**
+	 * Get the minimum k of this table.
+	 * @return The minimum k.
+	 */
+	public int getKMin() {
+		return kMin;
+	}
+
+	/**
+	 * Get the maximum k of this table.
+	 * @return The maximum k.
+	 */
+	public int getKMax() {
+		return kMax;
+	}
+
+	/**
+	 * Write the table of an enzyme catalog.
+	 * @param catalog Enzyme catalog.
+	 * @param kMin Minimum length of enzyme sequence.
+	 * @param kMax Maximum length of enzyme sequence, at most MAX_K.
+	 * @param file Table file.
+	 * @throws IOException If the file can not be written.
+	 */
+	public static void write(EnzymeCatalog catalog, int kMin, int kMax, File file) throws IOException {
+		if(kMin < 1 || kMax > MAX_K || kMin > kMax)
+			throw new IllegalArgumentException("K must be 1 to " + MAX_K + ": " + kMin + "-" + kMax);
+		// distinct recognition sequences by length
+		List<List<String>> sitesList = new ArrayList<List<String>>();
+		for(int k=0;k<=kMax;k++)
+			sitesList.add(new ArrayList<String>());
+		Set<String> enzymeSeqs = new HashSet<String>();
+		for(int id=0;id<catalog.size();id++) {
+			String enzymeSeq = catalog.getEnzymeSeq(id);
+			if(enzymeSeq.length() < kMin || enzymeSeq.length() > kMax)
+				continue;
+			if(enzymeSeqs.add(enzymeSeq))
+				sitesList.get(enzymeSeq.length()).add(enzymeSeq);
+		}
+		// the sets of every k-mer
+		Map<String, Integer> setIndex = new HashMap<String, Integer>();
+		List<int[]> sets = new ArrayList<int[]>();
+		sets.add(new int[0]);	// set 0 is empty
+		setIndex.put(Arrays.toString(sets.get(0)), 0);
+		List<int[][]> entries = new ArrayList<int[][]>();	// {exact sets, IUPAC sets} of every k
+		for(int k=kMin;k<=kMax;k++) {
+			PairList exactPairs = new PairList();
+			PairList IUPACpairs = new PairList();
+			for(String site : sitesList.get(k)) {
+				int[] ids = catalog.getRecognitionGroup(site);
+				int[] codes = expand(site);
+				if(codes == null)
+					continue;	// not an IUPAC sequence, which no k-mer can be
+				boolean isExact = codes.length == 1 && isBases(site);
+				for(int code : codes) {
+					for(int id : ids) {
+						if(isExact)
+							exactPairs.add(code, id);
+						IUPACpairs.add(code, id);
+					}
+				}
+			}
+			entries.add(new int[][] {exactPairs.toSets(1 << (2*k), setIndex, sets), IUPACpairs.toSets(1 << (2*k), setIndex, sets)});
+		}
+		int idCount = 0;
+		for(int[] set : sets)
+			idCount += set.length;
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(catalog.size());
+			dos.writeInt(getFingerprint(catalog));
+			dos.writeInt(kMin);
+			dos.writeInt(kMax);
+			dos.writeInt(sets.size());
+			dos.writeInt(idCount);
+			for(int[][] entry : entries) {
+				for(int code=0;code<entry[0].length;code++) {
+					dos.writeInt(entry[0][code]);
+					dos.writeInt(entry[1][code]);
+				}
+			}
+			int offset = 0;
+			for(int[] set : sets) {
+				dos.writeInt(offset);
+				offset += set.length;
+			}
+			dos.writeInt(offset);
+			for(int[] set : sets) {
+				for(int id : set)
+					dos.writeInt(id);
+			}
+		}
+		finally {
+			dos.close();
+		}
+	}
+
+	/**
+	 * Expand a recognition sequence into the codes of the k-mers it stands for.
+	 * @return The codes, or null if the sequence has a character which is not an IUPAC code.
+	 */
+	private static int[] expand(String site) {
+		int[] codes = {0};
+		for(int i=0;i<site.length();i++) {
+			int mask = ShiftAnd.baseMask(site.charAt(i));
+			if(mask == 0)
+				return null;
+			int[] next = new int[codes.length * Integer.bitCount(mask)];
+			int count = 0;
+			for(int code : codes) {
+				for(int base=0;base<4;base++) {
+					if((mask & (1 << base)) != 0)
+						next[count++] = (code << 2) | base;
+				}
+			}
+			codes = next;
+		}
+		return codes;
+	}
+
+	private static boolean isBases(String site) {
+		for(int i=0;i<site.length();i++) {
+			if(ShiftAnd.baseIndex(site.charAt(i)) == -1)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Pairs of a k-mer code and an enzyme id, grouped into the set of every code.
+	 */
+	private static class PairList {
+		private long[] pairs = new long[1024];
+		private int size = 0;
+
+		void add(int code, int id) {
+			if(size == pairs.length)
+				pairs = Arrays.copyOf(pairs, size * 2);
+			pairs[size++] = ((long)code << 32) | id;
+		}
+
+		/**
+		 * Get the set index of every code, and add the new sets.
+		 */
+		int[] toSets(int codeCount, Map<String, Integer> setIndex, List<int[]> sets) {
+			Arrays.sort(pairs, 0, size);
+			int[] codeSets = new int[codeCount];
+			int i = 0;
+			while(i < size) {
+				int code = (int)(pairs[i] >>> 32);
+				int[] ids = new int[8];
+				int count = 0;
+				for(;i<size && (int)(pairs[i] >>> 32) == code;i++) {
+					int id = (int)pairs[i];
+					if(count > 0 && ids[count-1] == id)
+						continue;
+					if(count == ids.length)
+						ids = Arrays.copyOf(ids, count * 2);
+					ids[count++] = id;
+				}
+				ids = Arrays.copyOf(ids, count);
+				String key = Arrays.toString(ids);
+				Integer index = setIndex.get(key);
+				if(index == null) {
+					index = sets.size();
+					setIndex.put(key, index);
+					sets.add(ids);
+				}
+				codeSets[code] = index.intValue();
+			}
+			return codeSets;
+		}
+	}
+
+	/**
+	 * Find the enzymes in the sequence by the table, the same as EnzymeMatcher.match().
+	 * @param seq The search sequence.
+	 * @param enzymeLen_min Minimum length of enzyme sequence.
+	 * @param enzymeLen_max Maximum length of enzyme sequence.
+	 * @param isIUPACenzyme To set true is to find the IUPAC enzymes, and false is not.
+	 * @param found Ids of the found enzymes are set on it.
+	 * @return If the sequence is classified then return true, else return false if the sequence has a character other
+	 * than A, C, G and T or the table does not cover the length range, and nothing is set.
+	 */
+	boolean match(CharSequence seq, int enzymeLen_min, int enzymeLen_max, boolean isIUPACenzyme, BitSet found) {
+		return match(seq, enzymeLen_min, enzymeLen_max, isIUPACenzyme, false, found, null);
+	}
+
+	/**
+	 * Find the enzymes of both strands in the sequence by the table, the same as EnzymeMatcher.match() of both strands.
+	 * @param seq The search sequence.
+	 * @param enzymeLen_min Minimum length of enzyme sequence.
+	 * @param enzymeLen_max Maximum length of enzyme sequence.
+	 * @param isIUPACenzyme To set true is to find the IUPAC enzymes on the sequence, and false is not.
+	 * @param isIUPACenzymeComplementary To set true is to find the IUPAC enzymes on the complementary strand, and false is not.
+	 * @param found Ids of the enzymes found on the sequence are set on it.
+	 * @param foundComplementary Ids of the enzymes found on the complementary strand are set on it, or null.
+	 * @return If the sequence is classified then return true, else return false if the sequence has a character other
+	 * than A, C, G and T or the table does not cover the length range, and nothing is set.
+	 */
+	boolean match(CharSequence seq, int enzymeLen_min, int enzymeLen_max, boolean isIUPACenzyme, boolean isIUPACenzymeComplementary,
+		BitSet found, BitSet foundComplementary) {
+		if(enzymeLen_min < kMin || enzymeLen_max > kMax)
+			return false;
+		int[] bases = new int[seq.length()];
+		for(int i=0;i<bases.length;i++) {
+			if((bases[i]=ShiftAnd.baseIndex(seq.charAt(i))) == -1)
+				return false;
+		}
+		int setOffset = isIUPACenzyme ? 4 : 0;
+		int setOffsetComplementary = isIUPACenzymeComplementary ? 4 : 0;
+		for(int pos=0;pos<bases.length;pos++) {
+			int code = 0;
+			for(int k=1;k<=enzymeLen_max && pos+k<=bases.length;k++) {
+				code = (code << 2) | bases[pos+k-1];
+				if(k < enzymeLen_min)
+					continue;
+				setIds(buffer.getInt(entryStart[k] + 8 * code + setOffset), found);
+				if(foundComplementary != null) {
+					int codeComplementary = code ^ ((1 << (2*k)) - 1);
+					setIds(buffer.getInt(entryStart[k] + 8 * codeComplementary + setOffsetComplementary), foundComplementary);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Set the enzyme ids of a set.
+	 */
+	private void setIds(int set, BitSet found) {
+		if(set == 0)
+			return;
+		int start = buffer.getInt(setStart + 4 * set);
+		int end = buffer.getInt(setStart + 4 * (set + 1));
+		for(int i=start;i<end;i++)
+			found.set(buffer.getInt(idStart + 4 * i));
+	}
+
+	/**
+	 * Generate a table file of the REBASE catalog.
+	 * @param args args[0] is the table file, and args[1] and args[2] are the minimum and maximum k (default 4 and 10).
+	 * @throws IOException IOException
+	 */
+	public static void main(String args[]) throws IOException {
+		if(args.length < 1) {
+			System.out.println("Usage: java bio.rehunt.rflp.EnzymeKmerTable <table file> [k_min k_max]");
+			return;
+		}
+		long start = System.currentTimeMillis();
+		int kMin = args.length >= 3 ? Integer.parseInt(args[1]) : DEFAULT_K_MIN;
+		int kMax = args.length >= 3 ? Integer.parseInt(args[2]) : DEFAULT_K_MAX;
+		EnzymeCatalog catalog = EnzymeCatalog.getInstance();
+		File file = new File(args[0]);
+		write(catalog, kMin, kMax, file);
+		System.out.println("Write the " + kMin + "-mer to " + kMax + "-mer table of " + catalog.size() + " enzymes to " + file +
+				" (" + file.length() + " bytes) in " + (System.currentTimeMillis()-start) + " ms.");
+	}
+}
@@ -0,0 +1,392 @@
+/*
+ * Program name: EnzymeMatcher.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Find the restriction enzymes of REBASE in a sequence by one pass.
+ */
+
+package bio.rehunt.rflp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import bio.rehunt.algorithm.AhoCorasick;
+import bio.rehunt.algorithm.LazyDFA;
+import bio.rehunt.algorithm.ShiftAnd;
+import bio.rehunt.rebase.EnzymeCatalog;
+import bio.rehunt.seq.SeqProcess;
+import bio.rehunt.seq.Sequence;
+
+/**
+ * Find the restriction enzymes of REBASE in a sequence by one pass.
+ * The recognition sequences of the enzymes in a length range are compiled into one Aho-Corasick automaton,
+ * each distinct recognition sequence once. The recognition sequences with IUPAC codes are also compiled into
+ * a bit-parallel Shift-And search, which matches the codes as base classes without expanding them.
+ * <p>
+ * All recognition sequences are also compiled into one Shift-And search searched by a lazy DFA, so a sequence of
+ * A, C, G and T only, which is the most, is searched for the enzymes with and without IUPAC codes by one automaton
+ * in one pass. The DFA states are built on demand and cached. A search checks a DFA out of a pool of at most one
+ * DFA for each processor, whose caches are DFA_CACHE_SIZE in total, and returns it after the search, so the memory
+ * does not grow with the threads and a new thread starts with built states. If every DFA is in use, the sequence
+ * is searched by the Shift-And search of the DFA, with the same result. A sequence with other characters is searched by the Aho-Corasick automaton and the Shift-And search.
+ * <p>
+ * A matcher of both strands also compiles the complementary sequence of every recognition sequence, so the enzymes
+ * of the complementary strand are found on the sequence itself in the same pass. A sequence which is shared by
+ * both strands, or by several enzymes, is compiled once.
+ * A matcher is immutable and shared by all RFLP analyses with the same catalog, length range and strands. The shared
+ * matchers are looked up without a lock, so threads do not wait for each other once a matcher is built.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class EnzymeMatcher {
+	private static final ConcurrentHashMap<EnzymeCatalog, CatalogMatchers> cache = new ConcurrentHashMap<EnzymeCatalog, CatalogMatchers>();
+	private static final int[] NO_IDS = new int[0];
+	/** The cache size of all DFAs of a matcher in bytes. */
+	static final long DFA_CACHE_SIZE = 64l << 20;
+
+	private final int enzymeCount;
+	private final AhoCorasick automaton;
+	private final int[][] keyIds;	// key index -> enzyme ids
+	private final int[][] keyComplementaryIds;	// key index -> enzyme ids on the complementary strand
+	private final ShiftAnd IUPACsearch;
+	private final int[][] IUPACkeyIds;	// key index of IUPACsearch -> enzyme ids
+	private final int[][] IUPACkeyComplementaryIds;	// key index of IUPACsearch -> enzyme ids on the complementary strand
+	private final String[] longIUPACkeys;	// keys with IUPAC codes longer than ShiftAnd.MAX_KEY_LEN
+	private final int[][] longIUPACkeyIds;	// index of longIUPACkeys -> enzyme ids
+	private final int[][] longIUPACkeyComplementaryIds;	// index of longIUPACkeys -> enzyme ids on the complementary strand
+	private final ShiftAnd keySearch;	// all keys, searched by the lazy DFA, or null if a key can not be compiled
+	private final int[] keySearchKeys;	// key index of keySearch -> key index
+	private final BitSet IUPACkeys;	// key indices of the keys with IUPAC codes
+	private final ConcurrentLinkedQueue<LazyDFA> idleDFAs;	// DFAs of keySearch not in use
+	private final AtomicInteger DFAcount = new AtomicInteger();
+	private final int maxDFAs;
+	private final long DFAcacheSize;	// cache size of a DFA
+
+	/**
+	 * The shared matchers of a catalog.
+	 */
+	private static final class CatalogMatchers {
+		// length range -> matcher, of one strand and of both strands
+		final ConcurrentHashMap<Long, EnzymeMatcher> matchers = new ConcurrentHashMap<Long, EnzymeMatcher>();
+		final ConcurrentHashMap<Long, EnzymeMatcher> matchers_both = new ConcurrentHashMap<Long, EnzymeMatcher>();
+	}
+
+	/**
+	 * Constructor for initialize EnzymeMatcher.
+	 * @param catalog Enzyme catalog.
+	 * @param enzymeLen_min Minimum length of enzyme sequence.
+	 * @param enzymeLen_max Maximum length of enzyme sequence.
+	 * @param isBothStrands True is to compile the complementary sequences too, and false is not.
+	 */
+	private EnzymeMatcher(EnzymeCatalog catalog, int enzymeLen_min, int enzymeLen_max, boolean isBothStrands) {
+		SeqProcess seqProcess = new SeqProcess();
+		Sequence sequence = new Sequence();
+		enzymeCount = catalog.size();
+		// distinct key sequences -> ids of both strands
+		Map<String, int[][]> keys = new LinkedHashMap<String, int[][]>();
+		Set<String> enzymeSeqs = new HashSet<String>();
+		for(int id=0;id<catalog.size();id++) {
+			String enzymeSeq = catalog.getEnzymeSeq(id);
+			if(enzymeSeq.equals(""))
+				continue;
+			if(enzymeSeq.length() < enzymeLen_min || enzymeSeq.length() > enzymeLen_max)
+				continue;
+			if(!enzymeSeqs.add(enzymeSeq))
+				continue;
+			int[] ids = catalog.getRecognitionGroup(enzymeSeq);
+			getKeyIds(keys, enzymeSeq)[0] = ids;
+			if(isBothStrands)
+				getKeyIds(keys, sequence.complementaryTrans(enzymeSeq))[1] = ids;
+		}
+		automaton = new AhoCorasick();
+		IUPACsearch = new ShiftAnd();
+		ShiftAnd allSearch = new ShiftAnd();
+		List<Integer> allSearchKeys = new ArrayList<Integer>();
+		IUPACkeys = new BitSet();
+		boolean isAllSearched = true;
+		List<int[][]> keyIdList = new ArrayList<int[][]>();
+		List<int[][]> IUPACkeyIdList = new ArrayList<int[][]>();
+		List<String> longIUPACkeyList = new ArrayList<String>();
+		List<int[][]> longIUPACkeyIdList = new ArrayList<int[][]>();
+		for(Map.Entry<String, int[][]> entry : keys.entrySet()) {
+			String keySeq = entry.getKey();
+			int key = automaton.addKey(keySeq);
+			keyIdList.add(entry.getValue());
+			boolean isIUPAC = seqProcess.getFirstIUPACPos(keySeq) != -1;
+			if(isIUPAC) {
+				IUPACkeys.set(key);
+				if(keySeq.length() <= ShiftAnd.MAX_KEY_LEN) {
+					IUPACsearch.addKey(keySeq);
+					IUPACkeyIdList.add(entry.getValue());
+				}
+				else if(isIUPACkey(keySeq)) {
+					longIUPACkeyList.add(keySeq);
+					longIUPACkeyIdList.add(entry.getValue());
+				}
+			}
+			if(isIUPACkey(keySeq)) {
+				if(keySeq.length() <= ShiftAnd.MAX_KEY_LEN) {
+					allSearch.addKey(keySeq);
+					allSearchKeys.add(key);
+				}
+				else
+					isAllSearched = false;	// a key longer than ShiftAnd.MAX_KEY_LEN
+			}
+		}
+		automaton.build();
+		IUPACsearch.build();
+		if(isAllSearched) {
+			allSearch.build();
+			keySearch = allSearch;
+			keySearchKeys = new int[allSearchKeys.size()];
+			for(int k=0;k<keySearchKeys.length;k++)
+				keySearchKeys[k] = allSearchKeys.get(k);
+			idleDFAs = new ConcurrentLinkedQueue<LazyDFA>();
+		}
+		else {
+			keySearch = null;
+			keySearchKeys = null;
+			idleDFAs = null;
+		}
+		maxDFAs = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+		DFAcacheSize = Math.min(LazyDFA.DEFAULT_CACHE_SIZE, DFA_CACHE_SIZE / maxDFAs);
+		keyIds = new int[keyIdList.size()][];
+		keyComplementaryIds = new int[keyIdList.size()][];
+		for(int k=0;k<keyIdList.size();k++) {
+			keyIds[k] = keyIdList.get(k)[0];
+			keyComplementaryIds[k] = keyIdList.get(k)[1];
+		}
+		IUPACkeyIds = new int[IUPACkeyIdList.size()][];
+		IUPACkeyComplementaryIds = new int[IUPACkeyIdList.size()][];
+		for(int k=0;k<IUPACkeyIdList.size();k++) {
+			IUPACkeyIds[k] = IUPACkeyIdList.get(k)[0];
+			IUPACkeyComplementaryIds[k] = IUPACkeyIdList.get(k)[1];
+		}
+		longIUPACkeys = longIUPACkeyList.toArray(new String[longIUPACkeyList.size()]);
+		longIUPACkeyIds = new int[longIUPACkeys.length][];
+		longIUPACkeyComplementaryIds = new int[longIUPACkeys.length][];
+		for(int k=0;k<longIUPACkeys.length;k++) {
+			longIUPACkeyIds[k] = longIUPACkeyIdList.get(k)[0];
+			longIUPACkeyComplementaryIds[k] = longIUPACkeyIdList.get(k)[1];
+		}
+	}
+
+	/**
+	 * Judge if a key sequence has IUPAC codes only, so it can be compiled into a Shift-And search.
+	 */
+	private static boolean isIUPACkey(String keySeq) {
+		for(int i=0;i<keySeq.length();i++) {
+			if(ShiftAnd.baseMask(keySeq.charAt(i)) == 0)
+				return false;
+		}
+		return keySeq.length() > 0;
+	}
+
+	/**
+	 * Get the ids of both strands of a key sequence, and add the key if it is new.
+	 */
+	private static int[][] getKeyIds(Map<String, int[][]> keys, String keySeq) {
+		int[][] ids = keys.get(keySeq);
+		if(ids == null) {
+			ids = new int[][] {NO_IDS, NO_IDS};
+			keys.put(keySeq, ids);
+		}
+		return ids;
+	}
+
+	/**
+	 * Get the shared matcher of a catalog and a length range.
+	 * @param catalog Enzyme catalog.
+	 * @param enzymeLen_min Minimum length of enzyme sequence.
+	 * @param enzymeLen_max Maximum length of enzyme sequence.
+	 * @return The matcher.
+	 */
+	static EnzymeMatcher getInstance(EnzymeCatalog catalog, int enzymeLen_min, int enzymeLen_max) {
+		return getInstance(catalog, enzymeLen_min, enzymeLen_max, false);
+	}
+
+	/**
+	 * Get the shared matcher of a catalog, a length range and strands.
+	 * @param catalog Enzyme catalog.
+	 * @param enzymeLen_min Minimum length of enzyme sequence.
+	 * @param enzymeLen_max Maximum length of enzyme sequence.
+	 * @param isBothStrands True is to find the enzymes of the complementary strand too, and false is not.
+	 * @return The matcher.
+	 */
+	static EnzymeMatcher getInstance(EnzymeCatalog catalog, int enzymeLen_min, int enzymeLen_max, boolean isBothStrands) {
+		CatalogMatchers catalogMatchers = cache.get(catalog);
+		if(catalogMatchers == null) {
+			catalogMatchers = cache.computeIfAbsent(catalog, new Function<EnzymeCatalog, CatalogMatchers>() {
+				public CatalogMatchers apply(EnzymeCatalog enzymeCatalog) {
+					return new CatalogMatchers();
+				}
+			});
+		}
+		ConcurrentHashMap<Long, EnzymeMatcher> matchers = isBothStrands ? catalogMatchers.matchers_both : catalogMatchers.matchers;
+		Long key = Long.valueOf(((long)enzymeLen_min << 32) | (enzymeLen_max & 0xFFFFFFFFl));
+		EnzymeMatcher matcher = matchers.get(key);
+		if(matcher == null) {	// build a matcher once
+			matcher = matchers.computeIfAbsent(key, new Function<Long, EnzymeMatcher>() {
+				public EnzymeMatcher apply(Long lengthRange) {
+					return new EnzymeMatcher(catalog, enzymeLen_min, enzymeLen_max, isBothStrands);
+				}
+			});
+		}
+		return matcher;
+	}
+
+	/**
+	 * Find the enzymes in the sequence.
+	 * A recognition sequence is found if it appears in the sequence as it is. If isIUPACenzyme is true, a recognition
+	 * sequence with IUPAC codes is also found if a general sequence it stands for appears in the sequence.
+	 * @param seq The search sequence.
+	 * @param isIUPACenzyme To set true is to find the IUPAC enzymes, and false is not.
+	 * @return Ids of the found enzymes.
+	 */
+	BitSet match(CharSequence seq, boolean isIUPACenzyme) {
+		BitSet found = new BitSet(enzymeCount);
+		BitSet keys = searchBases(seq);
+		if(keys != null) {
+			setIds(getKeys(keys, isIUPACenzyme), keyIds, found);
+			return found;
+		}
+		setIds(automaton.search(seq), keyIds, found);
+		if(isIUPACenzyme) {
+			setIds(IUPACsearch.search(seq), IUPACkeyIds, found);
+			setIds(searchLongIUPACkeys(seq), longIUPACkeyIds, found);
+		}
+		return found;
+	}
+
+	/**
+	 * Find the enzymes of both strands in the sequence by one pass. The enzymes of the complementary strand are the
+	 * enzymes found in the complementary sequence (Sequence.complementaryTrans()), not reversed.
+	 * The matcher must be of both strands.
+	 * @param seq The search sequence.
+	 * @param isIUPACenzyme To set true is to find the IUPAC enzymes on the sequence, and false is not.
+	 * @param isIUPACenzymeComplementary To set true is to find the IUPAC enzymes on the complementary strand, and false is not.
+	 * @param found Ids of the enzymes found on the sequence are set on it.
+	 * @param foundComplementary Ids of the enzymes found on the complementary strand are set on it.
+	 */
+	void match(CharSequence seq, boolean isIUPACenzyme, boolean isIUPACenzymeComplementary, BitSet found, BitSet foundComplementary) {
+		BitSet baseKeys = searchBases(seq);
+		if(baseKeys != null) {
+			setIds(getKeys(baseKeys, isIUPACenzyme), keyIds, found);
+			setIds(getKeys(baseKeys, isIUPACenzymeComplementary), keyComplementaryIds, foundComplementary);
+			return;
+		}
+		BitSet keys = automaton.search(seq);
+		setIds(keys, keyIds, found);
+		setIds(keys, keyComplementaryIds, foundComplementary);
+		if(isIUPACenzyme || isIUPACenzymeComplementary) {
+			BitSet IUPACkeys = IUPACsearch.search(seq);
+			BitSet longKeys = searchLongIUPACkeys(seq);
+			if(isIUPACenzyme) {
+				setIds(IUPACkeys, IUPACkeyIds, found);
+				setIds(longKeys, longIUPACkeyIds, found);
+			}
+			if(isIUPACenzymeComplementary) {
+				setIds(IUPACkeys, IUPACkeyComplementaryIds, foundComplementary);
+				setIds(longKeys, longIUPACkeyComplementaryIds, foundComplementary);
+			}
+		}
+	}
+
+	/**
+	 * Search the keys with IUPAC codes longer than ShiftAnd.MAX_KEY_LEN by comparing every position, as ShiftAnd
+	 * matches a key: a key position matches a base of A, C, G and T it stands for.
+	 * @return Indices of the found keys in longIUPACkeys.
+	 */
+	private BitSet searchLongIUPACkeys(CharSequence seq) {
+		BitSet found = new BitSet(longIUPACkeys.length);
+		for(int k=0;k<longIUPACkeys.length;k++) {
+			String key = longIUPACkeys[k];
+			for(int start=0;start+key.length()<=seq.length() && !found.get(k);start++) {
+				int i = 0;
+				while(i < key.length()) {
+					int base = ShiftAnd.baseIndex(seq.charAt(start+i));
+					if(base == -1 || (ShiftAnd.baseMask(key.charAt(i)) & (1 << base)) == 0)
+						break;
+					i++;
+				}
+				if(i == key.length())
+					found.set(k);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Search all keys by a lazy DFA of the pool if the sequence has A, C, G and T only. On such a sequence a key
+	 * with IUPAC codes is found only by the general sequences it stands for, and a key without is found as it is.
+	 * @return Key indices of the found keys, or null if the sequence has other characters or the keys are not compiled.
+	 */
+	private BitSet searchBases(CharSequence seq) {
+		if(idleDFAs == null)
+			return null;
+		for(int i=0;i<seq.length();i++) {
+			if(ShiftAnd.baseIndex(seq.charAt(i)) == -1)
+				return null;
+		}
+		LazyDFA dfa = checkOutDFA();
+		BitSet found;
+		if(dfa == null)	// every DFA is in use
+			found = keySearch.search(seq);
+		else {
+			try {
+				found = dfa.search(seq);
+			}
+			finally {
+				idleDFAs.offer(dfa);
+			}
+		}
+		BitSet keys = new BitSet(keyIds.length);
+		for(int k=found.nextSetBit(0);k>=0;k=found.nextSetBit(k+1))
+			keys.set(keySearchKeys[k]);
+		return keys;
+	}
+
+	/**
+	 * Check a DFA out of the pool, and make one if there are less than maxDFAs.
+	 * @return The DFA, or null if every DFA is in use.
+	 */
+	private LazyDFA checkOutDFA() {
+		LazyDFA dfa = idleDFAs.poll();
+		if(dfa != null)
+			return dfa;
+		int count;
+		while((count=DFAcount.get()) < maxDFAs) {
+			if(DFAcount.compareAndSet(count, count+1))
+				return new LazyDFA(keySearch, DFAcacheSize);
+		}
+		return null;
+	}
+
+	/**
+	 * Get the found keys of a search, without the keys with IUPAC codes if the IUPAC enzymes are not found.
+	 */
+	private BitSet getKeys(BitSet keys, boolean isIUPACenzyme) {
+		if(isIUPACenzyme)
+			return keys;
+		BitSet generalKeys = (BitSet)keys.clone();
+		generalKeys.andNot(IUPACkeys);
+		return generalKeys;
+	}
+
+	/**
+	 * Set the enzyme ids of the found keys.
+	 */
+	private static void setIds(BitSet keys, int[][] keyIds, BitSet found) {
+		for(int k=keys.nextSetBit(0);k>=0;k=keys.nextSetBit(k+1)) {
+			for(int id : keyIds[k])
+				found.set(id);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Program name: EnzymeNameLists.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Read-only list of enzyme name lists for a list of enzyme id sets.
+ */
+
+package bio.rehunt.rflp;
+
+import java.util.*;
+
+import bio.rehunt.rebase.EnzymeCatalog;
+
+/**
+ * Read-only list of enzyme name lists for a list of enzyme id sets.
+ * The name list of an id set is made only when it is read, in the order of REBASE records.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class EnzymeNameLists extends AbstractList<List<String>> implements RandomAccess {
+	private final EnzymeCatalog catalog;
+	private final List<BitSet> idSets;
+
+	/**
+	 * Constructor for initialize EnzymeNameLists.
+	 * @param catalog Enzyme catalog.
+	 * @param idSets Enzyme id sets.
+	 */
+	EnzymeNameLists(EnzymeCatalog catalog, List<BitSet> idSets) {
+		this.catalog = catalog;
+		this.idSets = idSets;
+	}
+
+	/**
+	 * Get the enzyme name list of an enzyme id set.
+	 * @param catalog Enzyme catalog.
+	 * @param idSet Enzyme id set.
+	 * @return Enzyme name list.
+	 */
+	static List<String> getNameList(EnzymeCatalog catalog, BitSet idSet) {
+		int[] ids = new int[idSet.cardinality()];
+		int count = 0;
+		for(int id=idSet.nextSetBit(0);id>=0;id=idSet.nextSetBit(id+1))
+			ids[count++] = id;
+		return new EnzymeFieldList(catalog, ids, EnzymeCatalog.ENZYME_NAME);
+	}
+
+	public List<String> get(int index) {
+		return getNameList(catalog, idSets.get(index));
+	}
+
+	public int size() {
+		return idSets.size();
+	}
+}
@@ -12,6 +12,7 @@ package bio.rehunt.rflp;
 
 import java.util.*;
 
+import bio.rehunt.rebase.EnzymeCatalog;
 import bio.rehunt.seq.Sequence;
 import bio.rehunt.seq.SeqProcess;
 
@@ -26,12 +27,24 @@ public class JudgeRFLP {
 	private int enzymeLen_min = 4;
 	private int enzymeLen_max = 10;
 	private boolean isIUPACenzyme = false;	// judge whether get IUPAC enzymes or not
+	private boolean isIncremental = true;	// judge whether re-search only the variation window for each allele
+	private boolean isComplementary = false;	// judge whether judge the complementary strand in the same pass or not
+	private boolean isIUPACenzymeComplementary = false;	// judge whether get IUPAC enzymes on the complementary strand or not
 	private boolean is_var_seq = false;
+	private String seq_input = null;	// the sequence set
 	private String iupac_seq = null;
 	private List<String> dntps_list = null;
 	private List<Integer> var_pos_list = null;
-	private List<List<String>> enzymeNameList = null;
-	private List<List<String>> cutEnzymesList = null;
+	private EnzymeCatalog catalog = null;
+	private RFLP rflp = null;	// RFLP of the settings, reused by every search until the settings change
+	// enzyme ids of every allele, enzyme ids cut allele i but not allele j, and enzyme ids cut allele i only
+	private List<BitSet> enzymeIdsList = null;
+	private List<BitSet> cutEnzymeIdsList = null;
+	private List<BitSet> uniqueEnzymeIdsList = null;
+	private List<BitSet> enzymeIdsList_complementary = null;
+	private List<BitSet> cutEnzymeIdsList_complementary = null;
+	private List<BitSet> uniqueEnzymeIdsList_complementary = null;
+	private boolean isCut_complementary = false;
 
 	/**
 	 * Constructor for JudgeRFLP.
@@ -59,6 +72,7 @@ public class JudgeRFLP {
 	 * @param seq Sequence.
 	 */
 	public void setSeq(String seq) {
+		seq_input = seq;
 		Sequence sequence = new Sequence();
 		// judge seq if variation sequence and get related information
 		if(is_var_seq=sequence.isVarSeq(seq)) {
@@ -69,8 +83,7 @@ public class JudgeRFLP {
 				var_pos_list = sequence.getVarPosList();
 			}
 		}
-		this.enzymeNameList = new LinkedList<List<String>>();
-		this.cutEnzymesList = new LinkedList<List<String>>();
+		clear();
 	}
 
 	/**
@@ -87,6 +100,28 @@ public class JudgeRFLP {
 	 */
 	public void setIUPACenzyme(boolean isIUPACenzyme) {
 		this.isIUPACenzyme = isIUPACenzyme;
+		rflp = null;
+	}
+
+	/**
+	 * Set if to search the alleles incrementally. The sequence around the variation is searched once, and only
+	 * the recognition windows which overlap the variation are searched again for each allele. The result is the same.
+	 * @param isIncremental True is to search incrementally (default), and false is to search every allele sequence in full.
+	 */
+	public void setIncremental(boolean isIncremental) {
+		this.isIncremental = isIncremental;
+	}
+
+	/**
+	 * Set if to judge the complementary strand (Sequence.complementaryTrans()) in the same pass. The recognition sequences
+	 * and their complementary sequences are searched on the sequence together, and the complementary results are the same
+	 * as a JudgeRFLP of the complementary sequence.
+	 * @param isComplementary True is to judge the complementary strand too, and false is not.
+	 * @param isIUPACenzyme True is to find the IUPAC enzymes on the complementary strand, and false is not.
+	 */
+	public void setComplementary(boolean isComplementary, boolean isIUPACenzyme) {
+		this.isComplementary = isComplementary;
+		this.isIUPACenzymeComplementary = isIUPACenzyme;
 	}
 
 	/**
@@ -95,6 +130,7 @@ public class JudgeRFLP {
 	 */
 	public void setEnzymeLenMin(int enzyme_len) {
 		enzymeLen_min = enzyme_len;
+		rflp = null;
 	}
 
 	/**
@@ -103,6 +139,7 @@ public class JudgeRFLP {
 	 */
 	public void setEnzymeLenMax(int enzyme_len) {
 		enzymeLen_max = enzyme_len;
+		rflp = null;
 	}
 
 	/**
@@ -111,89 +148,389 @@ public class JudgeRFLP {
 	 */
 	public boolean isCanCut() {
 		// clear
-		enzymeNameList.clear();
-		cutEnzymesList.clear();
+		clear();
 
-		boolean isCut = false;
-		// SeqProcess
-		SeqProcess seqProcess = new SeqProcess();
-		if(var_pos == -1)	// if var_pos=-1, set var_pos is first IUPAC position
-			var_pos = seqProcess.getFirstIUPACPos(iupac_seq);
-		String seq = iupac_seq;
-		int seq_var_pos = var_pos;
-		// get posMultiSeq from IUPAC seq for full sequence
-		List<String> posMultiSeq = seqProcess.getPosMultiSeq(seq, seq_var_pos);
-		/*for(int i=0;i<posMultiSeq.size();i++)
-			System.out.println("posMultiSeq: " + posMultiSeq.get(i));*/
+		Alleles alleles = getAlleles(false);
 		// RFLP
-		RFLP rflp = new RFLP();
-		rflp.setIUPACenzyme(isIUPACenzyme);
-		rflp.setEnzymeLenMin(enzymeLen_min);
-		rflp.setEnzymeLenMax(enzymeLen_max);
-		for(int i=0;i<posMultiSeq.size();i++) {
-			String singleSeq = posMultiSeq.get(i);
-			rflp.setSeq(singleSeq);
-			if(rflp.getEnzymes()) {
-				try {
-					List<String> enzymeName_list = rflp.getEnzymeNameList();
-					enzymeNameList.add(enzymeName_list);
-					/*for(int j=0;j<enzymeName_list.size();j++)
-						System.out.println(enzymeName_list.get(j));*/
-				}
-				catch(Exception e) {
-					System.out.println("Exception: " + e);
-				}
-			}
-			else
-				System.out.println("Error: Not to get Enzymes.");
+		if(!findAlleleEnzymes(alleles.seq, alleles.pos, alleles.isWindow, alleles.alleles, alleles.alleles_complementary)) {
+			System.out.println("Error: Not to get Enzymes.");
+			return false;
 		}
 		// judge seq if can be recognized by restriction enzymes
-		RFLPprocess rflpProcess = new RFLPprocess();
-		List<String> enzymeNameList0 = enzymeNameList.get(0);
-		for(int i=1;i<enzymeNameList.size();i++) {
-			List<String> enzymeName_list = enzymeNameList.get(i);
-			List<String> cutEnzymes = rflpProcess.getDiffOrder(enzymeNameList0, enzymeName_list);
-			if(cutEnzymes.size() != 0) {
-				isCut = true;
-				//System.out.println("This sequence can be recognized.");
-				break;
+		if(alleles.alleles_complementary != null)
+			isCut_complementary = judgeCut(enzymeIdsList_complementary, cutEnzymeIdsList_complementary, uniqueEnzymeIdsList_complementary);
+		return judgeCut(enzymeIdsList, cutEnzymeIdsList, uniqueEnzymeIdsList);
+	}
+
+	/**
+	 * Judge if sequence of dNTPs format can be recognized by restriction enzymes.
+	 * @return If return true then sequence can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCut_dNTPs() {
+		// clear
+		clear();
+
+		Alleles alleles = getAlleles(true);
+		// RFLP
+		if(!findAlleleEnzymes(alleles.seq, alleles.pos, alleles.isWindow, alleles.alleles, alleles.alleles_complementary)) {
+			System.out.println("Error: Fail to get Enzymes.");
+			return false;
+		}
+		// judge seq if can be cut
+		if(alleles.alleles_complementary != null)
+			isCut_complementary = judgeCut(enzymeIdsList_complementary, cutEnzymeIdsList_complementary, uniqueEnzymeIdsList_complementary);
+		return judgeCut(enzymeIdsList, cutEnzymeIdsList, uniqueEnzymeIdsList);
+	}
+
+	/**
+	 * Judge every variation position of the sequence in one call, as isCanCut() or isCanCut_dNTPs() with setVarPos() of
+	 * each position of the variation position list. The results of isCanCut() are not changed.
+	 * <p>
+	 * If searched incrementally, the sequence before each variation is the sequence before the previous variation and
+	 * the bases between them, so the sequences before the variations are searched in one pass from the start, and the
+	 * sequences after them in one pass from the end. Only (enzymeLen_max-1) bases are searched again at each variation,
+	 * instead of the whole sequence for every variation. Else every allele sequence is searched in full.
+	 * @param isDNTPs True is of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @return The results in the order of the variation positions, or null if the sequence has no variations or REBASE
+	 * can not be loaded.
+	 */
+	public List<JudgeRFLPVariant> judgeAllVariants(boolean isDNTPs) {
+		if(!is_var_seq || var_pos_list == null) {
+			System.out.println("Error: Not a variation sequence.");
+			return null;
+		}
+		// the alleles of every variation
+		Sequence sequence_complementary = getComplementarySequence();
+		List<Alleles> allelesList = new ArrayList<Alleles>();
+		int var_pos_set = var_pos;
+		for(int pos : var_pos_list) {
+			var_pos = pos;
+			allelesList.add(getAlleles(isDNTPs, sequence_complementary));
+		}
+		var_pos = var_pos_set;
+		RFLP rflp = getRFLP();
+		boolean isBothStrands = sequence_complementary != null;
+		// the positions of the variations in the filtered sequence
+		String seq_filtered = RFLP.filterSeq(iupac_seq);
+		int[] filteredPos = new int[iupac_seq.length()+1];	// position in iupac_seq -> position in the filtered sequence
+		for(int i=0;i<iupac_seq.length();i++)
+			filteredPos[i+1] = filteredPos[i] + ("ATCGMRWSYKVHDBN".indexOf(Character.toUpperCase(iupac_seq.charAt(i))) != -1 ? 1 : 0);
+		int[] pos5 = new int[allelesList.size()];	// end of the sequence before the variation
+		int[] pos3 = new int[allelesList.size()];	// start of the sequence after the variation
+		List<Integer> windowIndices = new ArrayList<Integer>();
+		for(int i=0;i<allelesList.size();i++) {
+			Alleles alleles = allelesList.get(i);
+			if(!alleles.isWindow)
+				continue;
+			pos5[i] = filteredPos[alleles.pos];
+			pos3[i] = filteredPos[alleles.pos+1];
+			windowIndices.add(i);
+		}
+		Collections.sort(windowIndices, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Integer.compare(pos5[a], pos5[b]);
 			}
-			else {
-				//System.out.println("This sequence can't be recognized.");
-				isCut = false;
+		});
+		// the enzymes before and after every variation, by one pass from each end
+		int flank = Math.max(enzymeLen_max-1, 0);
+		BitSet[][] shared5 = new BitSet[allelesList.size()][];
+		BitSet[][] shared3 = new BitSet[allelesList.size()][];
+		for(int k=0;k<windowIndices.size();k++) {
+			int i = windowIndices.get(k);
+			int start = k == 0 ? 0 : Math.max(pos5[windowIndices.get(k-1)]-flank, 0);
+			BitSet[] found = findEnzymes(rflp, seq_filtered.substring(start, pos5[i]), isBothStrands);
+			if(found == null) {
+				System.out.println("Error: Fail to get Enzymes.");
+				return null;
 			}
+			if(k > 0) {
+				found[0].or(shared5[windowIndices.get(k-1)][0]);
+				found[1].or(shared5[windowIndices.get(k-1)][1]);
+			}
+			shared5[i] = found;
 		}
-		// find cutEnzymes cut which singleSeq
-		for(int i=0;i<enzymeNameList.size();i++) {
-			List<String> enzymeName_listA = enzymeNameList.get(i);
-			for(int j=0;j<enzymeNameList.size();j++) {
-				List<String> enzymeName_listB = enzymeNameList.get(j);
-				if(i != j) {
-					List<String> cutEnzymes = rflpProcess.getDiff(enzymeName_listA, enzymeName_listB);
-					cutEnzymesList.add(cutEnzymes);
-				}
+		for(int k=windowIndices.size()-1;k>=0;k--) {
+			int i = windowIndices.get(k);
+			int end = k == windowIndices.size()-1 ? seq_filtered.length() :
+				Math.min(pos3[windowIndices.get(k+1)]+flank, seq_filtered.length());
+			BitSet[] found = findEnzymes(rflp, seq_filtered.substring(pos3[i], end), isBothStrands);
+			if(found == null) {
+				System.out.println("Error: Fail to get Enzymes.");
+				return null;
+			}
+			if(k < windowIndices.size()-1) {
+				found[0].or(shared3[windowIndices.get(k+1)][0]);
+				found[1].or(shared3[windowIndices.get(k+1)][1]);
 			}
+			shared3[i] = found;
 		}
-		return isCut;
+		// judge every variation
+		List<JudgeRFLPVariant> variants = new ArrayList<JudgeRFLPVariant>();
+		for(int i=0;i<allelesList.size();i++) {
+			Alleles alleles = allelesList.get(i);
+			BitSet shared = new BitSet();
+			BitSet shared_complementary = new BitSet();
+			String window5 = "";
+			String window3 = "";
+			if(alleles.isWindow) {
+				shared.or(shared5[i][0]);
+				shared.or(shared3[i][0]);
+				shared_complementary.or(shared5[i][1]);
+				shared_complementary.or(shared3[i][1]);
+				window5 = seq_filtered.substring(Math.max(pos5[i]-flank, 0), pos5[i]);
+				window3 = seq_filtered.substring(pos3[i], Math.min(pos3[i]+flank, seq_filtered.length()));
+			}
+			List<BitSet> idsList = new ArrayList<BitSet>();
+			List<BitSet> cutIdsList = new ArrayList<BitSet>();
+			List<BitSet> uniqueIdsList = new ArrayList<BitSet>();
+			List<BitSet> idsList_complementary = new ArrayList<BitSet>();
+			List<BitSet> cutIdsList_complementary = new ArrayList<BitSet>();
+			List<BitSet> uniqueIdsList_complementary = new ArrayList<BitSet>();
+			if(!findWindowEnzymes(rflp, window5, window3, shared, shared_complementary,
+				alleles.alleles, alleles.alleles_complementary, idsList, idsList_complementary)) {
+				System.out.println("Error: Fail to get Enzymes.");
+				return null;
+			}
+			boolean isCut_variant = judgeCut(idsList, cutIdsList, uniqueIdsList);
+			boolean isCut_variant_complementary = alleles.alleles_complementary != null &&
+				judgeCut(idsList_complementary, cutIdsList_complementary, uniqueIdsList_complementary);
+			variants.add(new JudgeRFLPVariant(alleles.pos, rflp.getCatalog(), isCut_variant, isCut_variant_complementary,
+				idsList, cutIdsList, uniqueIdsList, idsList_complementary, cutIdsList_complementary, uniqueIdsList_complementary));
+		}
+		return variants;
 	}
 
 	/**
-	 * Judge if sequence of dNTPs format can be recognized by restriction enzymes.
-	 * @return If return true then sequence can be recognized by restriction enzymes, else return false.
+	 * Screen if the variation can be recognized by restriction enzymes, without the enzyme lists of isCanCut().
+	 * As isCanCut(), only the strand of the sequence is judged, and the complementary strand of setComplementary() is
+	 * not searched; countCutEnzymes() and getTopCutEnzymes() take both strands.
+	 * If searched incrementally, the windows of the alleles are searched first, and the sequences around the variation
+	 * are searched only if an enzyme is found on some of the windows but not all of them. Else the search stops at the
+	 * first allele with other enzymes than the first allele. The results of isCanCut() are not changed.
+	 * @param isDNTPs True is of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @return If an enzyme can recognize some of the alleles but not all of them then return true, else return false.
 	 */
-	public boolean isCanCut_dNTPs() {
-		// clear
-		enzymeNameList.clear();
-		cutEnzymesList.clear();
+	public boolean isCanCut_screen(boolean isDNTPs) {
+		Alleles alleles = getAlleles(isDNTPs, null);
+		RFLP rflp = getRFLP();
+		String seq5 = "";
+		String seq3 = "";
+		String window5 = "";
+		String window3 = "";
+		if(alleles.isWindow) {
+			seq5 = RFLP.filterSeq(alleles.seq.substring(0, alleles.pos));
+			seq3 = RFLP.filterSeq(alleles.seq.substring(alleles.pos+1));
+			int flank = Math.max(enzymeLen_max-1, 0);
+			window5 = seq5.substring(Math.max(seq5.length()-flank, 0));
+			window3 = seq3.substring(0, Math.min(flank, seq3.length()));
+		}
+		// the enzymes of some alleles but not all of them are the enzymes of any allele XOR the first allele
+		BitSet first = null;
+		BitSet cutIds = null;
+		Set<String> searched = new HashSet<String>();
+		for(String allele : alleles.alleles) {
+			if(!searched.add(allele))
+				continue;
+			BitSet found = rflp.findEnzymes(window5 + RFLP.filterSeq(allele) + window3);
+			if(found == null) {
+				System.out.println("Error: Fail to get Enzymes.");
+				return false;
+			}
+			if(first == null)
+				first = found;
+			else if(!found.equals(first)) {
+				if(!alleles.isWindow)	// the allele sequences are searched in full
+					return true;
+				found.xor(first);
+				if(cutIds == null)
+					cutIds = found;
+				else
+					cutIds.or(found);
+			}
+		}
+		if(cutIds == null)
+			return false;
+		// an enzyme found before or after the variation is found on every allele
+		for(String flankSeq : new String[] {seq5, seq3}) {
+			BitSet found = rflp.findEnzymes(flankSeq);
+			if(found == null) {
+				System.out.println("Error: Fail to get Enzymes.");
+				return false;
+			}
+			cutIds.andNot(found);
+			if(cutIds.isEmpty())
+				return false;
+		}
+		return true;
+	}
 
-		boolean isCut = false;
+	/**
+	 * Count the restriction enzymes which can recognize some of the alleles but not all of them, the distinct enzymes of
+	 * getCutEnzymesList() and getCutEnzymesListComplementary(), without the enzyme lists.
+	 * @param isDNTPs True is of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @return The number of enzymes, or -1 if REBASE can not be loaded.
+	 */
+	public int countCutEnzymes(boolean isDNTPs) {
+		BitSet ids = findCutEnzymeIds(isDNTPs);
+		return ids == null ? -1 : ids.cardinality();
+	}
+
+	/**
+	 * Get the top restriction enzymes which can recognize some of the alleles but not all of them, without the enzyme lists.
+	 * The enzymes sold by more suppliers (REBASE "COMMERCIAL AVAILABILITY") are first, and then the enzymes in the order
+	 * of REBASE records. The enzymes of the complementary strand are taken as countCutEnzymes() does.
+	 * @param isDNTPs True is of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @param k The maximum number of enzymes.
+	 * @return At most k enzyme names, or null if REBASE can not be loaded.
+	 */
+	public List<String> getTopCutEnzymes(boolean isDNTPs, int k) {
+		BitSet ids = findCutEnzymeIds(isDNTPs);
+		if(ids == null)
+			return null;
+		// the supplier count of every candidate, counted once
+		final int[] suppliers = new int[ids.length()];
+		for(int id=ids.nextSetBit(0);id>=0;id=ids.nextSetBit(id+1))
+			suppliers[id] = getSupplierCount(catalog, id);
+		// keep the top k by a heap of the worst first
+		Comparator<Integer> order = new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				int suppliersA = suppliers[a], suppliersB = suppliers[b];
+				if(suppliersA != suppliersB)
+					return suppliersA > suppliersB ? -1 : 1;
+				return a.compareTo(b);
+			}
+		};
+		PriorityQueue<Integer> top = new PriorityQueue<Integer>(Math.max(k, 1), Collections.reverseOrder(order));
+		for(int id=ids.nextSetBit(0);id>=0 && k>0;id=ids.nextSetBit(id+1)) {
+			if(top.size() < k)
+				top.add(id);
+			else if(order.compare(id, top.peek()) < 0) {
+				top.poll();
+				top.add(id);
+			}
+		}
+		List<Integer> topIds = new ArrayList<Integer>(top);
+		Collections.sort(topIds, order);
+		List<String> names = new ArrayList<String>(topIds.size());
+		for(int id : topIds)
+			names.add(catalog.getEnzymeName(id));
+		return names;
+	}
+
+	/**
+	 * Get the number of suppliers of an enzyme, a letter each in "COMMERCIAL AVAILABILITY".
+	 */
+	private static int getSupplierCount(EnzymeCatalog catalog, int id) {
+		String commercial = catalog.getField(id, EnzymeCatalog.COMMERCIAL);
+		int count = 0;
+		for(int i=0;i<commercial.length();i++) {
+			if(Character.isLetter(commercial.charAt(i)))
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Find the enzymes which can recognize some of the alleles but not all of them, on either strand.
+	 * @return Enzyme ids, or null if REBASE can not be loaded.
+	 */
+	private BitSet findCutEnzymeIds(boolean isDNTPs) {
+		Alleles alleles = getAlleles(isDNTPs);
+		BitSet[] cutIds = findCutEnzymes(alleles.seq, alleles.pos, alleles.isWindow, alleles.alleles, alleles.alleles_complementary);
+		if(cutIds == null) {
+			System.out.println("Error: Fail to get Enzymes.");
+			return null;
+		}
+		cutIds[0].or(cutIds[1]);
+		return cutIds[0];
+	}
+
+	/**
+	 * The alleles of the variation to judge.
+	 */
+	private static class Alleles {
+		String seq;	// the IUPAC sequence
+		int pos;	// the variation position
+		boolean isWindow;	// true if searched incrementally
+		List<String> alleles;	// the alleles on the variation position if searched incrementally, else the allele sequences
+		List<String> alleles_complementary;	// the alleles of the complementary strand, or null if not judged
+	}
+
+	/**
+	 * Get the alleles of the variation position.
+	 * @param isDNTPs True is the alleles of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @return The alleles.
+	 */
+	private Alleles getAlleles(boolean isDNTPs) {
+		return getAlleles(isDNTPs, getComplementarySequence());
+	}
+
+	/**
+	 * Get the alleles of the variation position.
+	 * @param isDNTPs True is the alleles of the dNTPs format as isCanCut_dNTPs(), and false is of the IUPAC format as isCanCut().
+	 * @param sequence_complementary The complementary variation sequence of getComplementarySequence().
+	 * @return The alleles.
+	 */
+	private Alleles getAlleles(boolean isDNTPs, Sequence sequence_complementary) {
 		// SeqProcess
 		SeqProcess seqProcess = new SeqProcess();
+		int var_pos_set = var_pos;
 		if(var_pos == -1)	// if var_pos=-1, set var_pos is first IUPAC position
 			var_pos = seqProcess.getFirstIUPACPos(iupac_seq);
-		String seq = iupac_seq;
-		int seq_var_pos = var_pos;
+		Alleles alleles = new Alleles();
+		String seq = alleles.seq = iupac_seq;
+		int seq_var_pos = alleles.pos = var_pos;
 		// find dntps where position on var_pos
+		String dntps = isDNTPs ? getdNTPs(dntps_list, var_pos_list, var_pos) : null;
+		// the complementary strand
+		String seq_complementary = null;
+		int var_pos_complementary = -1;
+		String dntps_complementary = null;
+		if(sequence_complementary != null) {
+			seq_complementary = sequence_complementary.getIUPACSeq();
+			var_pos_complementary = var_pos_set != -1 ? var_pos_set : seqProcess.getFirstIUPACPos(seq_complementary);
+			if(isDNTPs)
+				dntps_complementary = getdNTPs(sequence_complementary.getdNTPsList(), sequence_complementary.getVarPosList(), var_pos_complementary);
+		}
+		boolean isWindow = alleles.isWindow = isWindow(seq, seq_var_pos, seq_complementary, var_pos_complementary);
+		// get posMultiSeq from IUPAC or dNTPs seq, alleles only if searched incrementally
+		alleles.alleles = getPosMultiSeq(seqProcess, seq, seq_var_pos, isWindow, dntps);
+		if(sequence_complementary != null)
+			alleles.alleles_complementary = getPosMultiSeq(seqProcess, seq_complementary, var_pos_complementary, isWindow, dntps_complementary);
+		return alleles;
+	}
+
+	/**
+	 * Get posMultiSeq of the variation position, of IUPAC format if dntps is null, else of dNTPs format.
+	 */
+	private List<String> getPosMultiSeq(SeqProcess seqProcess, String seq, int pos, boolean isWindow, String dntps) {
+		if(dntps == null)
+			return isWindow ? seqProcess.getPosMultiSeq(seq.substring(pos, pos+1), 0) : seqProcess.getPosMultiSeq(seq, pos);
+		return isWindow ? seqProcess.getPosMultiSeq_dNTPs(seq.substring(pos, pos+1), 0, dntps) :
+			seqProcess.getPosMultiSeq_dNTPs(seq, pos, dntps);
+	}
+
+	/**
+	 * Clear the results.
+	 */
+	private void clear() {
+		enzymeIdsList = new ArrayList<BitSet>();
+		cutEnzymeIdsList = new ArrayList<BitSet>();
+		uniqueEnzymeIdsList = new ArrayList<BitSet>();
+		enzymeIdsList_complementary = new ArrayList<BitSet>();
+		cutEnzymeIdsList_complementary = new ArrayList<BitSet>();
+		uniqueEnzymeIdsList_complementary = new ArrayList<BitSet>();
+		isCut_complementary = false;
+	}
+
+	/**
+	 * Find dNTPs where position on the variation position.
+	 * @param dntps_list The dNTPs list in the sequence.
+	 * @param var_pos_list The variation position list in the sequence.
+	 * @param var_pos The variation position.
+	 * @return The dNTPs, or "" if not found.
+	 */
+	private String getdNTPs(List<String> dntps_list, List<Integer> var_pos_list, int var_pos) {
 		String dntps = "";
 		for(int i=0;i<var_pos_list.size();i++) {
 			int pos = var_pos_list.get(i);
@@ -202,62 +539,262 @@ public class JudgeRFLP {
 				break;
 			}
 		}
-		// get posMultiSeq from dNTPs seq for full sequence
-		List<String> posMultiSeq_dNTPs = seqProcess.getPosMultiSeq_dNTPs(seq, seq_var_pos, dntps);
-		/*for(int i=0;i<posMultiSeq_dNTPs.size();i++)
-			System.out.println("posMultiSeq: " + posMultiSeq_dNTPs.get(i));*/
-		// RFLP
-		RFLP rflp = new RFLP();
-		rflp.setIUPACenzyme(isIUPACenzyme);
-		rflp.setEnzymeLenMin(enzymeLen_min);
-		rflp.setEnzymeLenMax(enzymeLen_max);
-		for(int i=0;i<posMultiSeq_dNTPs.size();i++) {
-			String singleSeq = posMultiSeq_dNTPs.get(i);
-			rflp.setSeq(singleSeq);
-			if(rflp.getEnzymes()) {
-				try {
-					List<String> enzymeName_list = rflp.getEnzymeNameList();
-					enzymeNameList.add(enzymeName_list);
-					/*for(int j=0;j<enzymeName_list.size();j++)
-						System.out.println(enzymeName_list.get(j));*/
-				}
-				catch(Exception e) {
-					System.out.println("Exception: " + e);
-				}
-			}
-			else
-				System.out.println("Error: Fail to get Enzymes.");
-		}
-		// judge seq if can be cut
-		RFLPprocess rflpProcess = new RFLPprocess();
-		List<String> enzymeNameList0 = enzymeNameList.get(0);
-		for(int i=1;i<enzymeNameList.size();i++) {
-			List<String> enzymeName_list = enzymeNameList.get(i);
-			List<String> cutEnzymes = rflpProcess.getDiffOrder(enzymeNameList0, enzymeName_list);
-			if(cutEnzymes.size() != 0) {
+		return dntps;
+	}
+
+	/**
+	 * Get the variation sequence of the complementary strand if the complementary strand is judged.
+	 * @return The complementary variation sequence, or null if not judged or the complementary sequence has no variations.
+	 */
+	private Sequence getComplementarySequence() {
+		if(!isComplementary || seq_input == null)
+			return null;
+		Sequence sequence = new Sequence();
+		String seq_complementary = sequence.complementaryTrans(seq_input);
+		if(!sequence.isVarSeq(seq_complementary) || !sequence.makeVarSeq(seq_complementary))
+			return null;
+		return sequence;
+	}
+
+	/**
+	 * Judge if the alleles can be searched incrementally. Both strands must share the sequence around the variation.
+	 */
+	private boolean isWindow(String seq, int pos, String seq_complementary, int pos_complementary) {
+		if(!isIncremental || pos < 0 || pos >= seq.length())
+			return false;
+		if(seq_complementary == null)
+			return true;
+		return pos == pos_complementary && new Sequence().complementaryTrans(seq_complementary).equals(seq);
+	}
+
+	/**
+	 * Judge if the enzyme id sets of the alleles differ, and find cutEnzymes cut which allele.
+	 * The enzymes cut allele i but not allele j are (allele i) AND NOT (allele j), and the enzymes cut allele i only
+	 * are (allele i) AND NOT (the union of the other alleles).
+	 * @param idsList Enzyme id sets of the alleles.
+	 * @param cutIdsList The list to add enzyme id sets cut allele i but not allele j, in the order of getCutEnzymesList().
+	 * @param uniqueIdsList The list to add enzyme id sets cut allele i only.
+	 * @return If the variation can be recognized by restriction enzymes then return true, else return false.
+	 */
+	private boolean judgeCut(List<BitSet> idsList, List<BitSet> cutIdsList, List<BitSet> uniqueIdsList) {
+		boolean isCut = false;
+		BitSet ids0 = idsList.get(0);
+		for(int i=1;i<idsList.size();i++) {
+			if(!ids0.equals(idsList.get(i))) {
 				isCut = true;
-				//System.out.println("This sequence can be recognized.");
 				break;
 			}
-			else {
-				//System.out.println("This sequence can't be recognized.");
-				isCut = false;
-			}
 		}
 		// find cutEnzymes cut which singleSeq
-		for(int i=0;i<enzymeNameList.size();i++) {
-			List<String> enzymeName_listA = enzymeNameList.get(i);
-			for(int j=0;j<enzymeNameList.size();j++) {
-				List<String> enzymeName_listB = enzymeNameList.get(j);
+		for(int i=0;i<idsList.size();i++) {
+			BitSet idsA = idsList.get(i);
+			BitSet others = new BitSet();
+			for(int j=0;j<idsList.size();j++) {
 				if(i != j) {
-					List<String> cutEnzymes = rflpProcess.getDiff(enzymeName_listA, enzymeName_listB);
-					cutEnzymesList.add(cutEnzymes);
+					BitSet cutIds = (BitSet)idsA.clone();
+					cutIds.andNot(idsList.get(j));
+					cutIdsList.add(cutIds);
+					others.or(idsList.get(j));
 				}
 			}
+			BitSet uniqueIds = (BitSet)idsA.clone();
+			uniqueIds.andNot(others);
+			uniqueIdsList.add(uniqueIds);
 		}
 		return isCut;
 	}
 
+	/**
+	 * Find restriction enzymes of every allele, and add the enzyme id sets to enzymeIdsList and enzymeIdsList_complementary.
+	 * <p>
+	 * If searched incrementally, the sequences before and after the variation are searched once. A recognition site which
+	 * is in neither of them overlaps the allele, so only the window of the allele and (enzymeLen_max-1) bases on both
+	 * sides is searched for each allele. Else every allele sequence is searched in full.
+	 * <p>
+	 * An allele of the complementary strand is complemented back, so the recognition sequences and their complementary
+	 * sequences are searched on the same sequence in one pass, and an allele shared by both strands is searched once.
+	 * @param seq Sequence.
+	 * @param pos The variation position in the sequence.
+	 * @param isWindow True is to search incrementally, and false is not.
+	 * @param alleles The alleles on the variation position if searched incrementally, else the allele sequences.
+	 * @param alleles_complementary The alleles of the complementary strand, or null if the complementary strand is not judged.
+	 * @return If search successfully return true, else return false.
+	 */
+	private boolean findAlleleEnzymes(String seq, int pos, boolean isWindow, List<String> alleles, List<String> alleles_complementary) {
+		RFLP rflp = getRFLP();
+		boolean isBothStrands = alleles_complementary != null;
+		// the sequence around the variation
+		BitSet shared = new BitSet();
+		BitSet shared_complementary = new BitSet();
+		String window5 = "";
+		String window3 = "";
+		if(isWindow) {
+			String seq5 = RFLP.filterSeq(seq.substring(0, pos));
+			String seq3 = RFLP.filterSeq(seq.substring(pos+1));
+			for(String flankSeq : new String[] {seq5, seq3}) {
+				BitSet[] found = findEnzymes(rflp, flankSeq, isBothStrands);
+				if(found == null)
+					return false;
+				shared.or(found[0]);
+				shared_complementary.or(found[1]);
+			}
+			int flank = Math.max(enzymeLen_max-1, 0);
+			window5 = seq5.substring(Math.max(seq5.length()-flank, 0));
+			window3 = seq3.substring(0, Math.min(flank, seq3.length()));
+		}
+		if(!findWindowEnzymes(rflp, window5, window3, shared, shared_complementary, alleles, alleles_complementary,
+			enzymeIdsList, enzymeIdsList_complementary))
+			return false;
+		catalog = rflp.getCatalog();
+		return true;
+	}
+
+	/**
+	 * Find restriction enzymes of every allele between the windows, and add the enzyme id sets to the lists.
+	 * @param rflp RFLP of the settings.
+	 * @param window5 The sequence before the allele to search, the (enzymeLen_max-1) bases or "".
+	 * @param window3 The sequence after the allele to search, the (enzymeLen_max-1) bases or "".
+	 * @param shared Ids of the enzymes found on every allele, outside the windows.
+	 * @param shared_complementary Ids of the enzymes found on every allele of the complementary strand, outside the windows.
+	 * @param alleles The alleles on the variation position if searched incrementally, else the allele sequences.
+	 * @param alleles_complementary The alleles of the complementary strand, or null if the complementary strand is not judged.
+	 * @param idsList The list to add enzyme id sets of the alleles.
+	 * @param idsList_complementary The list to add enzyme id sets of the alleles of the complementary strand.
+	 * @return If search successfully return true, else return false.
+	 */
+	private boolean findWindowEnzymes(RFLP rflp, String window5, String window3, BitSet shared, BitSet shared_complementary,
+		List<String> alleles, List<String> alleles_complementary, List<BitSet> idsList, List<BitSet> idsList_complementary) {
+		boolean isBothStrands = alleles_complementary != null;
+		List<String> alleles_forward = getForwardAlleles(alleles_complementary);
+		// search every distinct allele once
+		Map<String, BitSet[]> alleleEnzymes = new HashMap<String, BitSet[]>();
+		List<String> alleles_all = new ArrayList<String>(alleles);
+		alleles_all.addAll(alleles_forward);
+		for(int i=0;i<alleles_all.size();i++) {
+			String allele = alleles_all.get(i);
+			if(alleleEnzymes.containsKey(allele))
+				continue;
+			BitSet[] found = findEnzymes(rflp, window5 + RFLP.filterSeq(allele) + window3, isBothStrands);
+			if(found == null)
+				return false;
+			found[0].or(shared);
+			found[1].or(shared_complementary);
+			alleleEnzymes.put(allele, found);
+		}
+		for(int i=0;i<alleles.size();i++)
+			idsList.add(alleleEnzymes.get(alleles.get(i))[0]);
+		for(int i=0;i<alleles_forward.size();i++)
+			idsList_complementary.add(alleleEnzymes.get(alleles_forward.get(i))[1]);
+		return true;
+	}
+
+	/**
+	 * Find the enzymes which can recognize some of the alleles but not all of them, without the enzyme lists.
+	 * An enzyme found on the sequences before and after the variation is found on every allele, so if searched
+	 * incrementally, they are searched only if the windows of the alleles have such enzymes, and only until none is left.
+	 * @param seq Sequence.
+	 * @param pos The variation position in the sequence.
+	 * @param isWindow True is to search incrementally, and false is not.
+	 * @param alleles The alleles on the variation position if searched incrementally, else the allele sequences.
+	 * @param alleles_complementary The alleles of the complementary strand, or null if the complementary strand is not judged.
+	 * @return Enzyme ids of the sequence and the complementary strand, or null if REBASE can not be loaded.
+	 */
+	private BitSet[] findCutEnzymes(String seq, int pos, boolean isWindow, List<String> alleles, List<String> alleles_complementary) {
+		RFLP rflp = getRFLP();
+		boolean isBothStrands = alleles_complementary != null;
+		List<String> alleles_forward = getForwardAlleles(alleles_complementary);
+		String seq5 = "";
+		String seq3 = "";
+		String window5 = "";
+		String window3 = "";
+		if(isWindow) {
+			seq5 = RFLP.filterSeq(seq.substring(0, pos));
+			seq3 = RFLP.filterSeq(seq.substring(pos+1));
+			int flank = Math.max(enzymeLen_max-1, 0);
+			window5 = seq5.substring(Math.max(seq5.length()-flank, 0));
+			window3 = seq3.substring(0, Math.min(flank, seq3.length()));
+		}
+		// the enzymes of some alleles but not all of them are the enzymes of any allele XOR the first allele
+		Map<String, BitSet[]> alleleEnzymes = new HashMap<String, BitSet[]>();
+		BitSet[] union = {new BitSet(), new BitSet()};
+		for(int strand=0;strand<2;strand++) {
+			List<String> strandAlleles = strand == 0 ? alleles : alleles_forward;
+			Set<String> searched = new HashSet<String>();
+			BitSet first = null;
+			for(int i=0;i<strandAlleles.size();i++) {
+				String allele = strandAlleles.get(i);
+				if(!searched.add(allele))
+					continue;
+				BitSet[] found = alleleEnzymes.get(allele);
+				if(found == null) {
+					found = findEnzymes(rflp, window5 + RFLP.filterSeq(allele) + window3, isBothStrands);
+					if(found == null)
+						return null;
+					alleleEnzymes.put(allele, found);
+				}
+				if(first == null)
+					first = found[strand];
+				else {	// found[strand] is not read again
+					found[strand].xor(first);
+					union[strand].or(found[strand]);
+				}
+			}
+		}
+		if(isWindow) {
+			for(String flankSeq : new String[] {seq5, seq3}) {
+				if(union[0].isEmpty() && union[1].isEmpty())
+					break;
+				BitSet[] found = findEnzymes(rflp, flankSeq, isBothStrands);
+				if(found == null)
+					return null;
+				union[0].andNot(found[0]);
+				union[1].andNot(found[1]);
+			}
+		}
+		catalog = rflp.getCatalog();
+		return union;
+	}
+
+	/**
+	 * Get the RFLP of the settings. It is made once, so the shared catalog and matchers are looked up once.
+	 */
+	private RFLP getRFLP() {
+		if(rflp == null) {
+			rflp = new RFLP();
+			rflp.setIUPACenzyme(isIUPACenzyme);
+			rflp.setEnzymeLenMin(enzymeLen_min);
+			rflp.setEnzymeLenMax(enzymeLen_max);
+		}
+		return rflp;
+	}
+
+	/**
+	 * Get the alleles of the complementary strand on this strand.
+	 * @param alleles_complementary The alleles of the complementary strand, or null.
+	 * @return The complemented alleles, or an empty list.
+	 */
+	private List<String> getForwardAlleles(List<String> alleles_complementary) {
+		List<String> alleles_forward = new ArrayList<String>();
+		if(alleles_complementary != null) {
+			Sequence sequence = new Sequence();
+			for(int i=0;i<alleles_complementary.size();i++)
+				alleles_forward.add(sequence.complementaryTrans(alleles_complementary.get(i)));
+		}
+		return alleles_forward;
+	}
+
+	/**
+	 * Find restriction enzymes in a filtered sequence.
+	 * @return Ids of the enzymes found on the sequence and the complementary strand, or null if REBASE can not be loaded.
+	 */
+	private BitSet[] findEnzymes(RFLP rflp, String seq, boolean isBothStrands) {
+		BitSet found_complementary = new BitSet();
+		BitSet found = isBothStrands ? rflp.findEnzymes(seq, isIUPACenzymeComplementary, found_complementary) : rflp.findEnzymes(seq);
+		if(found == null)
+			return null;
+		return new BitSet[] {found, found_complementary};
+	}
+
 	/**
 	 * Get restriction enzyme name list that can recognize variation.
 	 * @return Restriction enzyme name list that can recognize variation.
@@ -274,7 +811,56 @@ public class JudgeRFLP {
 		// cutEnzymesList.get(3): (seq2 and seq1), cutEnzymesList.get(4): (seq2 and seq3), cutEnzymesList.get(5): (seq2 and seq4)
 		// cutEnzymesList.get(6): (seq3 and seq1), cutEnzymesList.get(7): (seq3 and seq2), cutEnzymesList.get(8): (seq3 and seq4)
 		// cutEnzymesList.get(9): (seq4 and seq1), cutEnzymesList.get(10): (seq4 and seq2), cutEnzymesList.get(11): (seq4 and seq3)
-		return cutEnzymesList;
+		return new EnzymeNameLists(catalog, cutEnzymeIdsList);
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize allele i only, and can't recognize the other alleles.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Restriction enzyme name list that can recognize the allele only.
+	 */
+	public List<String> getUniqueEnzymeNameList(int allele) {
+		return EnzymeNameLists.getNameList(catalog, uniqueEnzymeIdsList.get(allele));
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize allele i only on the complementary strand.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Restriction enzyme name list that can recognize the allele only on the complementary strand.
+	 */
+	public List<String> getUniqueEnzymeNameListComplementary(int allele) {
+		return EnzymeNameLists.getNameList(catalog, uniqueEnzymeIdsList_complementary.get(allele));
+	}
+
+	/**
+	 * Get ids in EnzymeCatalog of the restriction enzymes that exist in an allele.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Enzyme id set.
+	 */
+	public BitSet getEnzymeIds(int allele) {
+		return (BitSet)enzymeIdsList.get(allele).clone();
+	}
+
+	/**
+	 * Get ids in EnzymeCatalog of the restriction enzymes that can recognize allele i, but can't recognize allele j.
+	 * @param allele Allele index i.
+	 * @param other Allele index j, not the same as i.
+	 * @return Enzyme id set.
+	 */
+	public BitSet getCutEnzymeIds(int allele, int other) {
+		if(allele == other)
+			throw new IllegalArgumentException("The same allele: " + allele);
+		int alleleCount = enzymeIdsList.size();
+		return (BitSet)cutEnzymeIdsList.get(allele*(alleleCount-1) + (other < allele ? other : other-1)).clone();
+	}
+
+	/**
+	 * Get ids in EnzymeCatalog of the restriction enzymes that can recognize allele i only.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Enzyme id set.
+	 */
+	public BitSet getUniqueEnzymeIds(int allele) {
+		return (BitSet)uniqueEnzymeIdsList.get(allele).clone();
 	}
 
 	/**
@@ -283,7 +869,33 @@ public class JudgeRFLP {
 	 */
 	// get enzymeNameList
 	public List<List<String>> getEnzymeNameList() {
-		return enzymeNameList;
+		return new EnzymeNameLists(catalog, enzymeIdsList);
+	}
+
+	/**
+	 * Judge if the complementary strand can be recognized by restriction enzymes, after isCanCut() or isCanCut_dNTPs()
+	 * with setComplementary(true, ...).
+	 * @return If return true then the complementary strand can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCutComplementary() {
+		return isCut_complementary;
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize variation on the complementary strand.
+	 * The order is the same as getCutEnzymesList().
+	 * @return Restriction enzyme name list that can recognize variation on the complementary strand.
+	 */
+	public List<List<String>> getCutEnzymesListComplementary() {
+		return new EnzymeNameLists(catalog, cutEnzymeIdsList_complementary);
+	}
+
+	/**
+	 * Get restriction enzyme name list that exist in the complementary strand.
+	 * @return Restriction enzyme name list that exist in the complementary strand.
+	 */
+	public List<List<String>> getEnzymeNameListComplementary() {
+		return new EnzymeNameLists(catalog, enzymeIdsList_complementary);
 	}
 
 /*	public static void main(String args[]) {
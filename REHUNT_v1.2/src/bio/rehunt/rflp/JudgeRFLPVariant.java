@@ -0,0 +1,144 @@
+/*
+ * Program name: JudgeRFLPVariant.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Judge RFLP result of a variation position of a sequence.
+ */
+
+package bio.rehunt.rflp;
+
+import java.util.*;
+
+import bio.rehunt.rebase.EnzymeCatalog;
+
+/**
+ * Judge RFLP result of a variation position of a sequence, given by JudgeRFLP.judgeAllVariants().
+ * The result is the same as JudgeRFLP.isCanCut() or isCanCut_dNTPs() with setVarPos() of the position, and the enzyme
+ * lists are in the same order.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class JudgeRFLPVariant {
+	private final int var_pos;
+	private final EnzymeCatalog catalog;
+	private final boolean isCut;
+	private final boolean isCut_complementary;
+	// enzyme ids of every allele, enzyme ids cut allele i but not allele j, and enzyme ids cut allele i only
+	private final List<BitSet> enzymeIdsList;
+	private final List<BitSet> cutEnzymeIdsList;
+	private final List<BitSet> uniqueEnzymeIdsList;
+	private final List<BitSet> enzymeIdsList_complementary;
+	private final List<BitSet> cutEnzymeIdsList_complementary;
+	private final List<BitSet> uniqueEnzymeIdsList_complementary;
+
+	JudgeRFLPVariant(int var_pos, EnzymeCatalog catalog, boolean isCut, boolean isCut_complementary,
+		List<BitSet> enzymeIdsList, List<BitSet> cutEnzymeIdsList, List<BitSet> uniqueEnzymeIdsList,
+		List<BitSet> enzymeIdsList_complementary, List<BitSet> cutEnzymeIdsList_complementary, List<BitSet> uniqueEnzymeIdsList_complementary) {
+		this.var_pos = var_pos;
+		this.catalog = catalog;
+		this.isCut = isCut;
+		this.isCut_complementary = isCut_complementary;
+		this.enzymeIdsList = enzymeIdsList;
+		this.cutEnzymeIdsList = cutEnzymeIdsList;
+		this.uniqueEnzymeIdsList = uniqueEnzymeIdsList;
+		this.enzymeIdsList_complementary = enzymeIdsList_complementary;
+		this.cutEnzymeIdsList_complementary = cutEnzymeIdsList_complementary;
+		this.uniqueEnzymeIdsList_complementary = uniqueEnzymeIdsList_complementary;
+	}
+
+	/**
+	 * Get the variation position in the IUPAC sequence.
+	 * @return The variation position.
+	 */
+	public int getVarPos() {
+		return var_pos;
+	}
+
+	/**
+	 * Judge if the variation can be recognized by restriction enzymes.
+	 * @return If return true then the variation can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCut() {
+		return isCut;
+	}
+
+	/**
+	 * Judge if the variation can be recognized by restriction enzymes on the complementary strand.
+	 * @return If return true then the complementary strand can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCutComplementary() {
+		return isCut_complementary;
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize variation, as JudgeRFLP.getCutEnzymesList().
+	 * @return Restriction enzyme name list that can recognize variation.
+	 */
+	public List<List<String>> getCutEnzymesList() {
+		return new EnzymeNameLists(catalog, cutEnzymeIdsList);
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize variation on the complementary strand.
+	 * @return Restriction enzyme name list that can recognize variation on the complementary strand.
+	 */
+	public List<List<String>> getCutEnzymesListComplementary() {
+		return new EnzymeNameLists(catalog, cutEnzymeIdsList_complementary);
+	}
+
+	/**
+	 * Get restriction enzyme name list that exist in each allele.
+	 * @return Restriction enzyme name list that exist in each allele.
+	 */
+	public List<List<String>> getEnzymeNameList() {
+		return new EnzymeNameLists(catalog, enzymeIdsList);
+	}
+
+	/**
+	 * Get restriction enzyme name list that exist in each allele of the complementary strand.
+	 * @return Restriction enzyme name list that exist in each allele of the complementary strand.
+	 */
+	public List<List<String>> getEnzymeNameListComplementary() {
+		return new EnzymeNameLists(catalog, enzymeIdsList_complementary);
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize allele i only.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Restriction enzyme name list that can recognize the allele only.
+	 */
+	public List<String> getUniqueEnzymeNameList(int allele) {
+		return EnzymeNameLists.getNameList(catalog, uniqueEnzymeIdsList.get(allele));
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize allele i only on the complementary strand.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Restriction enzyme name list that can recognize the allele only on the complementary strand.
+	 */
+	public List<String> getUniqueEnzymeNameListComplementary(int allele) {
+		return EnzymeNameLists.getNameList(catalog, uniqueEnzymeIdsList_complementary.get(allele));
+	}
+
+	/**
+	 * Get ids in EnzymeCatalog of the restriction enzymes that exist in an allele.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Enzyme id set.
+	 */
+	public BitSet getEnzymeIds(int allele) {
+		return (BitSet)enzymeIdsList.get(allele).clone();
+	}
+
+	/**
+	 * Get ids in EnzymeCatalog of the restriction enzymes that can recognize allele i only.
+	 * @param allele Allele index, 0 is seq1.
+	 * @return Enzyme id set.
+	 */
+	public BitSet getUniqueEnzymeIds(int allele) {
+		return (BitSet)uniqueEnzymeIdsList.get(allele).clone();
+	}
+}
@@ -13,7 +13,8 @@ package bio.rehunt.rflp;
 import java.io.*;
 import java.util.*;
 
-import bio.rehunt.seq.SeqProcess;
+import bio.rehunt.rebase.EnzymeCatalog;
+import bio.rehunt.seq.PackedSequence;
 
 /**
  * RFLP analysis for a sequence.
@@ -22,26 +23,21 @@ import bio.rehunt.seq.SeqProcess;
  * @since JDK1.8.0
  */
 public class RFLP {
-	// RFLPprocess
-	private RFLPprocess process;
-	private List<String> resEnzymeList1;	// 1.<ENZYME NAME>
-	private List<String> resEnzymeList2;	// 2.<PROTOTYPE>
-	private List<String> resEnzymeList3;	// 3.<MICROORGANISM>
-	private List<String> resEnzymeList4;	// 4.<SOURCE>
-	private List<String> resEnzymeList5;	// 5.<RECOGNITION SEQUENCE>
-	private List<String> resEnzymeList6;	// 6.<METHYLATION SITE>
-	private List<String> resEnzymeList7;	// 7.<COMMERCIAL AVAILABILITY>
-	private List<String> resEnzymeList8;	// 8.<REFERENCES>
+	private EnzymeCatalog catalog;	// shared REBASE catalog
+	private int[] resEnzymeIds;	// ids of the found enzymes, fields are fetched from the catalog when asked for
 	private boolean isIUPACenzyme = false;	// judge whether get IUPAC enzymes or not
 	private int enzymeLen_min = 4;
 	private int enzymeLen_max = 10;
-	private String seq;	// seq
+	private CharSequence seq;	// seq
+	private EnzymeKmerTable table = null;	// shared k-mer table, resolved once
+	private boolean isTableResolved = false;
+	private EnzymeMatcher matcher = null;	// shared matchers of the length range, resolved once
+	private EnzymeMatcher matcher_both = null;
 
 	/**
 	 * Constructor for initialize RFLP.
 	 */
 	public RFLP() {
-		process = new RFLPprocess();
 	}
 
 	/**
@@ -50,6 +46,15 @@ public class RFLP {
 	 */
 	// set the seq for search enzymes
 	public void setSeq(String seq) {
+		this.seq = filterSeq(seq);
+	}
+
+	/**
+	 * Filter unnecessary symbols from a sequence, and keep IUPAC codes in upper case.
+	 * @param seq Sequence.
+	 * @return The filtered sequence.
+	 */
+	static String filterSeq(String seq) {
 		String upperSeq = seq.toUpperCase();
 		StringBuffer strBuff_seq = new StringBuffer();
 		for(int i=0;i<upperSeq.length();i++) {
@@ -60,145 +65,108 @@ public class RFLP {
 				strBuff_seq.append(upperSeq.charAt(i));
 			}
 		}
-		this.seq = strBuff_seq.toString();
+		return strBuff_seq.toString();
+	}
+
+	/**
+	 * Set a packed seq. The packed seq has only IUPAC codes in upper case, so it is searched as it is without a copy.
+	 * @param seq Packed sequence.
+	 */
+	public void setSeq(PackedSequence seq) {
+		this.seq = seq;
 	}
 
 	/**
 	 * Get restriction enzymes from the sequence.
-	 * @return If search successfully return true, else return false.
+	 * @return If search successfully return true, else return false, such as the sequence is not set.
 	 */
 	public boolean getEnzymes() {
-		// read restriction_enzyme file
-		String strLine = "";
-		InputStreamReader isr = null;
-		BufferedReader bfr = null;
+		if(seq == null)
+			return false;
+		BitSet found = findEnzymes(seq);
+		if(found == null)
+			return false;
+		setEnzymeIds(found);
+		return true;
+	}
+
+	/**
+	 * Find restriction enzymes in a filtered sequence by one pass, with the settings of this RFLP.
+	 * The k-mer table of EnzymeKmerTable is used if the system property "rehunt.kmer.table" is set.
+	 * @param seq Sequence with IUPAC codes in upper case only.
+	 * @return Ids of the found enzymes, or null if REBASE can not be loaded.
+	 */
+	BitSet findEnzymes(CharSequence seq) {
+		if(!resolveCatalog())
+			return null;
+		if(table != null) {
+			BitSet found = new BitSet(catalog.size());
+			if(table.match(seq, enzymeLen_min, enzymeLen_max, isIUPACenzyme, found))
+				return found;
+		}
+		if(matcher == null)
+			matcher = EnzymeMatcher.getInstance(catalog, enzymeLen_min, enzymeLen_max);
+		return matcher.match(seq, isIUPACenzyme);
+	}
+
+	/**
+	 * Find restriction enzymes of both strands in a filtered sequence by one pass, with the settings of this RFLP.
+	 * The k-mer table of EnzymeKmerTable is used if the system property "rehunt.kmer.table" is set.
+	 * @param seq Sequence with IUPAC codes in upper case only.
+	 * @param isIUPACenzymeComplementary To set true is to find the IUPAC enzymes on the complementary strand, and false is not.
+	 * @param foundComplementary Ids of the enzymes found on the complementary strand are set on it.
+	 * @return Ids of the enzymes found on the sequence, or null if REBASE can not be loaded.
+	 */
+	BitSet findEnzymes(CharSequence seq, boolean isIUPACenzymeComplementary, BitSet foundComplementary) {
+		if(!resolveCatalog())
+			return null;
+		BitSet found = new BitSet(catalog.size());
+		if(table != null && table.match(seq, enzymeLen_min, enzymeLen_max, isIUPACenzyme, isIUPACenzymeComplementary, found, foundComplementary))
+			return found;
+		if(matcher_both == null)
+			matcher_both = EnzymeMatcher.getInstance(catalog, enzymeLen_min, enzymeLen_max, true);
+		matcher_both.match(seq, isIUPACenzyme, isIUPACenzymeComplementary, found, foundComplementary);
+		return found;
+	}
+
+	/**
+	 * Get the shared REBASE catalog and its k-mer table once, so the searches of this RFLP do not look them up again.
+	 * @return If REBASE is loaded return true, else return false.
+	 */
+	private boolean resolveCatalog() {
+		if(isTableResolved)
+			return true;
+		// get the shared REBASE catalog
 		try {
-			isr = new InputStreamReader(getClass().getResourceAsStream("/REBASE/link_parsrefs.txt"));
-			bfr = new BufferedReader(isr);
+			catalog = EnzymeCatalog.getInstance();
 		}
 		catch(Exception e) {
 			System.out.println("Exception Message: " + e.getMessage());
 			return false;
 		}
-		resEnzymeList1 = new LinkedList<String>();
-		resEnzymeList2 = new LinkedList<String>();
-		resEnzymeList3 = new LinkedList<String>();
-		resEnzymeList4 = new LinkedList<String>();
-		resEnzymeList5 = new LinkedList<String>();
-		resEnzymeList6 = new LinkedList<String>();
-		resEnzymeList7 = new LinkedList<String>();
-		resEnzymeList8 = new LinkedList<String>();
-		
-		StringBuffer strBuff1 = new StringBuffer(15);
-		StringBuffer strBuff2 = new StringBuffer(10);
-		StringBuffer strBuff3 = new StringBuffer(55);
-		StringBuffer strBuff4 = new StringBuffer(20);
-		StringBuffer strBuff5 = new StringBuffer(35);
-		StringBuffer strBuff6 = new StringBuffer(30);
-		StringBuffer strBuff7 = new StringBuffer(20);
-		StringBuffer strBuff8 = new StringBuffer(50);
-		String enzymeSeq = null;
+		table = EnzymeKmerTable.getInstance(catalog);
+		isTableResolved = true;
+		return true;
+	}
 
+	/**
+	 * Set the found enzymes as the result of this RFLP.
+	 * @param found Ids of the found enzymes.
+	 */
+	void setEnzymeIds(BitSet found) {
+		int[] ids = new int[found.cardinality()];
 		int count = 0;
-		try {
-			while((strLine=bfr.readLine())!=null) {
-				if(!strLine.equals("")) {
-					if(strLine.charAt(0) != '<')
-						continue;
-					else {
-						count++;
-						// read data
-						switch(strLine.charAt(1)) {
-							case '1':
-								strBuff1.append(strLine.substring(3));
-								break;
-							case '2':
-								strBuff2.append(strLine.substring(3));
-								break;
-							case '3':
-								strBuff3.append(strLine.substring(3));
-								break;
-							case '4':
-								strBuff4.append(strLine.substring(3));
-								break;
-							case '5':
-								strBuff5.append(strLine.substring(3));
-								// process the enzyme recognition sequence
-								enzymeSeq = process.removeResEnzymeSym(strBuff5.toString());
-								break;
-							case '6':
-								strBuff6.append(strLine.substring(3));
-								break;
-							case '7':
-								strBuff7.append(strLine.substring(3));
-								break;
-							case '8':
-								strBuff8.append(strLine.substring(3));
-								break;
-							default:
-								count--;
-						}
-					}
-				}
+		for(int id=found.nextSetBit(0);id>=0;id=found.nextSetBit(id+1))
+			ids[count++] = id;
+		resEnzymeIds = ids;
+	}
 
-				// process RFLP and clear strBuff
-				if(count == 8) {
-					// find the enzymes in the sequence
-					if(!enzymeSeq.equals("")) {
-						if(enzymeSeq.length() >= enzymeLen_min && enzymeSeq.length() <= enzymeLen_max) {
-							if(process.haveRegionMatches(seq, enzymeSeq)) {
-								resEnzymeList1.add(strBuff1.toString());
-								resEnzymeList2.add(strBuff2.toString());
-								resEnzymeList3.add(strBuff3.toString());
-								resEnzymeList4.add(strBuff4.toString());
-								resEnzymeList5.add(strBuff5.toString());
-								resEnzymeList6.add(strBuff6.toString());
-								resEnzymeList7.add(strBuff7.toString());
-								resEnzymeList8.add(strBuff8.toString());
-							}
-							else if(isIUPACenzyme) {
-								SeqProcess seqProcess = new SeqProcess();
-								int allelePos = seqProcess.getFirstIUPACPos(enzymeSeq);
-								if(allelePos != -1) {
-									List<String> seqList = getAllIUPACseq(enzymeSeq);
-									for(int i=0;i<seqList.size();i++) {
-										//System.out.println("seqList: " + seqList.get(i).toString());
-										if(process.haveRegionMatches(seq, seqList.get(i).toString())) {
-											resEnzymeList1.add(strBuff1.toString());
-											resEnzymeList2.add(strBuff2.toString());
-											resEnzymeList3.add(strBuff3.toString());
-											resEnzymeList4.add(strBuff4.toString());
-											resEnzymeList5.add(strBuff5.toString());
-											resEnzymeList6.add(strBuff6.toString());
-											resEnzymeList7.add(strBuff7.toString());
-											resEnzymeList8.add(strBuff8.toString());
-											break;
-										}
-									}
-								}
-							}
-						}
-					}
-					// clear strBuff
-					strBuff1.delete(0, strBuff1.length());
-					strBuff2.delete(0, strBuff2.length());
-					strBuff3.delete(0, strBuff3.length());
-					strBuff4.delete(0, strBuff4.length());
-					strBuff5.delete(0, strBuff5.length());
-					strBuff6.delete(0, strBuff6.length());
-					strBuff7.delete(0, strBuff7.length());
-					strBuff8.delete(0, strBuff8.length());
-					count = 0;
-				}
-			}
-			// close file
-			bfr.close();
-			isr.close();
-		}
-		catch(Exception e){
-			return false;
-		}
-		return true;
+	/**
+	 * Get the REBASE catalog of the found enzyme ids.
+	 * @return Enzyme catalog, or null if no enzyme is searched.
+	 */
+	EnzymeCatalog getCatalog() {
+		return catalog;
 	}
 
 	/**
@@ -215,6 +183,8 @@ public class RFLP {
 	 */
 	public void setEnzymeLenMin(int enzyme_len) {
 		enzymeLen_min = enzyme_len;
+		matcher = null;
+		matcher_both = null;
 	}
 
 	/**
@@ -223,142 +193,40 @@ public class RFLP {
 	 */
 	public void setEnzymeLenMax(int enzyme_len) {
 		enzymeLen_max = enzyme_len;
+		matcher = null;
+		matcher_both = null;
 	}
 
 	/**
-	 * Get all general sequences from IUPAC enzyme recognition sequence.
-	 * @param IUPACseq The restriction enzyme sequence with IUPAC format.
-	 * @return A sequence list from IUPAC enzyme recognition sequence.
+	 * Get ids of the found enzymes in EnzymeCatalog, in the order of REBASE records.
+	 * @return Enzyme id array, or null if getEnzymes() is not performed.
 	 */
-	private List<String> getAllIUPACseq(String IUPACseq) {
-		List<String> seqList = new LinkedList<String>();
-		List<String> seqs = null;
-		StringBuffer strBuff = new StringBuffer(IUPACseq);
-		for(int i=0;i<IUPACseq.length();i++) {
-			if(IUPACseq.charAt(i)=='M') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='R') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='W') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='S') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='Y') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='K') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='V') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='H') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='D') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='B') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-			else if(IUPACseq.charAt(i)=='N') {
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "A").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "C").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "G").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				seqs = getAllIUPACseq(strBuff.replace(i, i+1, "T").toString());
-				for(int j=0;j<seqs.size();j++)
-					seqList.add(seqs.get(j).toString());
-				break;
-			}
-		}
-		if(seqList.size() == 0)
-		{
-			seqList.add(IUPACseq);
-			return seqList;
-		}
-		return seqList;
+	public int[] getEnzymeIds() {
+		if(resEnzymeIds == null)
+			return null;
+		return resEnzymeIds.clone();
+	}
+
+	/**
+	 * Get a field list of the found enzymes. The list is read-only and the field is fetched from EnzymeCatalog when an element is read.
+	 * The field getters, such as getEnzymeNameList(), return a copy of it in a LinkedList, which can be modified.
+	 * @param field Field index of EnzymeCatalog, such as EnzymeCatalog.ENZYME_NAME.
+	 * @return Field list, or null if getEnzymes() is not performed.
+	 */
+	public List<String> getFieldList(int field) {
+		if(resEnzymeIds == null)
+			return null;
+		return new EnzymeFieldList(catalog, resEnzymeIds, field);
+	}
+
+	/**
+	 * Copy a field list of the found enzymes into a LinkedList.
+	 */
+	private List<String> copyFieldList(int field) {
+		List<String> fieldList = getFieldList(field);
+		if(fieldList == null)
+			return null;
+		return new LinkedList<String>(fieldList);
 	}
 
 	/**
@@ -367,7 +235,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getEnzymeNameList() throws IOException {
-		return resEnzymeList1;
+		return copyFieldList(EnzymeCatalog.ENZYME_NAME);
 	}
 
 	/**
@@ -376,7 +244,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getPrototypeList() throws IOException {
-		return resEnzymeList2;
+		return copyFieldList(EnzymeCatalog.PROTOTYPE);
 	}
 
 	/**
@@ -385,7 +253,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getMicroorganism() throws IOException {
-		return resEnzymeList3;
+		return copyFieldList(EnzymeCatalog.MICROORGANISM);
 	}
 
 	/**
@@ -394,7 +262,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getSource() throws IOException {
-		return resEnzymeList4;
+		return copyFieldList(EnzymeCatalog.SOURCE);
 	}
 
 	/**
@@ -403,7 +271,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getRecognition() throws IOException {
-		return resEnzymeList5;
+		return copyFieldList(EnzymeCatalog.RECOGNITION);
 	}
 
 	/**
@@ -412,7 +280,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getMethylation() throws IOException {
-		return resEnzymeList6;
+		return copyFieldList(EnzymeCatalog.METHYLATION);
 	}
 
 	/**
@@ -421,7 +289,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getCommercial() throws IOException {
-		return resEnzymeList7;
+		return copyFieldList(EnzymeCatalog.COMMERCIAL);
 	}
 
 	/**
@@ -430,7 +298,7 @@ public class RFLP {
 	 * @throws IOException IOException
 	 */
 	public List<String> getReferences() throws IOException {
-		return resEnzymeList8;
+		return copyFieldList(EnzymeCatalog.REFERENCES);
 	}
 
 /*	public static void main(String args[]) throws Exception
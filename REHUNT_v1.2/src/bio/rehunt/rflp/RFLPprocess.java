@@ -95,107 +95,187 @@ public class RFLPprocess {
 
 	/**
 	 * Get the different elements between list1 and list2.
+	 * Every element is paired with an equal element of the other list once, so an element which appears more times in
+	 * one list is different for the extra times. The unpaired elements of list1 come first, and then those of list2.
 	 * @param list1 String list 1.
 	 * @param list2 String list 2.
 	 * @return Different elements between list1 and list2.
 	 */
-	public List<String> getDiffContent(List<String> list1, List<String> list2) {
-		List<String> differentList = new LinkedList<String>();
-		boolean[] list1_same = new boolean[list1.size()];
-		boolean[] list2_same = new boolean[list2.size()];
-		// initial
-		for(int i=0;i<list1_same.length;i++)
-			list1_same[i] = false;
-		for(int j=0;j<list2_same.length;j++)
-			list2_same[j] = false;
-		// list_same = false represents the content does not appear to each other
-		for(int i=0;i<list1.size();i++) {
-			for(int j=0;j<list2.size();j++) {
-				if(list2_same[j] == true)	// if list2_same[j] = true, not to compare
-					continue;
-	            if(list1.get(i).equals(list2.get(j))) {
-	               list1_same[i] = true;
-	               list2_same[j] = true;
-	               break;
-	            }
-			}
-		}
-		for(int i=0;i<list1_same.length;i++) {
-			if(list1_same[i] == false)
-				differentList.add(list1.get(i));
+	public List<String> getDiffContent(Collection<String> list1, Collection<String> list2) {
+		List<String> differentList = new ArrayList<String>();
+		Map<String, Integer> count1 = getCount(list1);
+		Map<String, Integer> count2 = getCount(list2);
+		// the first min(count1, count2) equal elements of each list are paired
+		Map<String, Integer> paired = new HashMap<String, Integer>();
+		for(String element : list1) {
+			int pair = paired.containsKey(element) ? paired.get(element) : 0;
+			Integer count = count2.get(element);
+			if(count != null && pair < count)
+				paired.put(element, pair+1);
+			else
+				differentList.add(element);
 		}
-		for(int j=0;j<list2_same.length;j++) {
-			if(list2_same[j] == false)
-				differentList.add(list2.get(j));
+		paired.clear();
+		for(String element : list2) {
+			int pair = paired.containsKey(element) ? paired.get(element) : 0;
+			Integer count = count1.get(element);
+			if(count != null && pair < count)
+				paired.put(element, pair+1);
+			else
+				differentList.add(element);
 		}
 		return differentList;
 	}
 
+	/**
+	 * Count every element in a list.
+	 */
+	private static Map<String, Integer> getCount(Collection<String> list) {
+		Map<String, Integer> count = new HashMap<String, Integer>();
+		for(String element : list) {
+			Integer c = count.get(element);
+			count.put(element, c == null ? 1 : c+1);
+		}
+		return count;
+	}
+
 	/**
 	 * Get the different elements between list1 and list2 and sort according to the alphabet order.
 	 * @param list1 String list 1.
 	 * @param list2 String list 2.
 	 * @return Different elements that have sorted between list1 and list2.
 	 */
-	public List<String> getDiffOrder(List<String> list1, List<String> list2) {
-		List<String> differentList = new LinkedList<String>();
-		List<String> diffList1 = getDiff(list1, list2);
-		List<String> diffList2 = getDiff(list2, list1);
+	public List<String> getDiffOrder(Collection<String> list1, Collection<String> list2) {
 		// sort by letters of the alphabet order
 		Set<String> set = new TreeSet<String>();
-		for(int i=0;i<diffList1.size();i++)
-      		set.add(diffList1.get(i));
-		for(int i=0;i<diffList2.size();i++)
-      		set.add(diffList2.get(i));
-		Iterator<String> iterator = set.iterator();
-		while(iterator.hasNext()) {
-			differentList.add(iterator.next().toString());
-		}
-		return differentList;
+		set.addAll(getDiff(list1, list2));
+		set.addAll(getDiff(list2, list1));
+		return new ArrayList<String>(set);
 	}
 
 	/**
 	 * Get the different elements between main list and reference list and exclude reference list.
+	 * The elements keep the order and repeats of main list.
 	 * @param mainList Main string list 1.
 	 * @param refList Reference string list 2.
 	 * @return Different elements between mainList and refList and exclude refList.
 	 */
-	public List<String> getDiff(List<String> mainList, List<String> refList) {
-		boolean hit = false;
-		List<String> diff = new LinkedList<String>();
-		for(int i=0;i<mainList.size();i++) {
-			for(int j=0;j<refList.size();j++) {
-				if(mainList.get(i).equals(refList.get(j))) {
-					hit = true;
-					break;
-				}
-			}
-			if(!hit)
-				diff.add(mainList.get(i));
-			hit = false;
+	public List<String> getDiff(Collection<String> mainList, Collection<String> refList) {
+		Set<String> refSet = toSet(refList);
+		List<String> diff = new ArrayList<String>();
+		for(String element : mainList) {
+			if(!refSet.contains(element))
+				diff.add(element);
 		}
 		return diff;
 	}
 
 	/**
 	 * Get the same elements between main list and reference list.
+	 * The elements keep the order and repeats of main list.
 	 * @param mainList Main string list 1.
 	 * @param refList Reference string list 2.
 	 * @return The same elements between main list and reference list.
 	 */
-	public List<String> getSame(List<String> mainList, List<String> refList) {
-		boolean hit = false;
-		List<String> same = new LinkedList<String>();
-		for(int i=0;i<mainList.size();i++) {
-			for(int j=0;j<refList.size();j++) {
-				if(mainList.get(i).equals(refList.get(j))) {
-					hit = true;
+	public List<String> getSame(Collection<String> mainList, Collection<String> refList) {
+		Set<String> refSet = toSet(refList);
+		List<String> same = new ArrayList<String>();
+		for(String element : mainList) {
+			if(refSet.contains(element))
+				same.add(element);
+		}
+		return same;
+	}
+
+	/**
+	 * Get a set for looking up the elements of a list.
+	 */
+	private static Set<String> toSet(Collection<String> list) {
+		if(list instanceof HashSet)	// a set by equals(), not a sorted set by a comparator
+			return (Set<String>)list;
+		return new HashSet<String>(list);
+	}
+
+	/**
+	 * Get the different elements between every two lists, as getDiff(lists.get(i), lists.get(j)) for every i != j.
+	 * Every list is hashed once.
+	 * @param lists String lists.
+	 * @return Different element lists in the order (list1 and list2), (list1 and list3), ..., (list2 and list1), ...
+	 */
+	public List<List<String>> getDiffAll(List<? extends Collection<String>> lists) {
+		List<Set<String>> sets = new ArrayList<Set<String>>(lists.size());
+		for(Collection<String> list : lists)
+			sets.add(toSet(list));
+		List<List<String>> diffLists = new ArrayList<List<String>>();
+		for(int i=0;i<lists.size();i++) {
+			for(int j=0;j<lists.size();j++) {
+				if(i == j)
+					continue;
+				Set<String> refSet = sets.get(j);
+				List<String> diff = new ArrayList<String>();
+				for(String element : lists.get(i)) {
+					if(!refSet.contains(element))
+						diff.add(element);
+				}
+				diffLists.add(diff);
+			}
+		}
+		return diffLists;
+	}
+
+	/**
+	 * Get the elements of every list which appear in none of the other lists.
+	 * The result of list i is the same as getDiff() of list i and every other list in turn, by one pass over all lists.
+	 * @param lists String lists.
+	 * @return The unique element lists, in the order of lists.
+	 */
+	public List<List<String>> getUnique(List<? extends Collection<String>> lists) {
+		// element -> index of the only list containing it, or -1 if more than one list contains it
+		Map<String, Integer> owner = new HashMap<String, Integer>();
+		for(int i=0;i<lists.size();i++) {
+			for(String element : lists.get(i)) {
+				Integer index = owner.get(element);
+				if(index == null)
+					owner.put(element, i);
+				else if(index != i && index != -1)
+					owner.put(element, -1);
+			}
+		}
+		List<List<String>> uniqueLists = new ArrayList<List<String>>();
+		for(int i=0;i<lists.size();i++) {
+			List<String> unique = new ArrayList<String>();
+			for(String element : lists.get(i)) {
+				if(owner.get(element) == i)
+					unique.add(element);
+			}
+			uniqueLists.add(unique);
+		}
+		return uniqueLists;
+	}
+
+	/**
+	 * Get the elements of the first list which appear in all the other lists.
+	 * The result is the same as getSame() of the first list and every other list in turn.
+	 * @param lists String lists.
+	 * @return The same elements, in the order and repeats of the first list.
+	 */
+	public List<String> getSameAll(List<? extends Collection<String>> lists) {
+		List<String> same = new ArrayList<String>();
+		if(lists.size() == 0)
+			return same;
+		List<Set<String>> sets = new ArrayList<Set<String>>(lists.size());
+		for(int i=1;i<lists.size();i++)
+			sets.add(toSet(lists.get(i)));
+		for(String element : lists.get(0)) {
+			boolean isSame = true;
+			for(Set<String> set : sets) {
+				if(!set.contains(element)) {
+					isSame = false;
 					break;
 				}
 			}
-			if(hit)
-				same.add(mainList.get(i));
-			hit = false;
+			if(isSame)
+				same.add(element);
 		}
 		return same;
 	}
@@ -227,26 +307,10 @@ public class RFLPprocess {
 	/**
 	 * Remove repeat elements.
 	 * @param list String list.
-	 * @return A string list without repeat elements.
+	 * @return A string list without repeat elements, in the order of the first appearance.
 	 */
-	public List<String> removeRepeat(List<String> list) {
-		List<String> noRepeat = new LinkedList<String>();
-		if(list.size() == 0)
-			return noRepeat;
-		boolean isEqual = false;
-		noRepeat.add(list.get(0));
-		for(int i=1;i<list.size();i++) {
-			for(int j=0;j<noRepeat.size();j++) {
-				if(list.get(i).equals(noRepeat.get(j))) {
-					isEqual = true;
-					break;
-				}
-			}
-			if(!isEqual)
-				noRepeat.add(list.get(i));
-			isEqual = false;
-		}
-		return noRepeat;
+	public List<String> removeRepeat(Collection<String> list) {
+		return new ArrayList<String>(new LinkedHashSet<String>(list));
 	}
 
 /*	public static void main(String args[]) {
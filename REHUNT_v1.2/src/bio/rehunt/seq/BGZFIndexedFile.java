@@ -0,0 +1,142 @@
+/*
+ * Program name: BGZFIndexedFile.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Random access of a BGZF file by its .gzi index.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random access of a BGZF file (bgzip) by its .gzi index (bgzip -i, samtools faidx).
+ * The .gzi file lists the compressed and decompressed offsets of every block but the first, so a decompressed offset
+ * is read by inflating only the block which holds it. The last inflated block is kept, so neighbouring bytes are
+ * read without inflating it again.
+ * <p>
+ * The blocks are read by absolute positions of the file channel, and the last block is published as an immutable
+ * object, so one instance can be read by threads.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class BGZFIndexedFile implements Closeable {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long[] compressedOffsets;	// block index -> offset of the block in the file
+	private final long[] offsets;	// block index -> decompressed offset of the first byte of the block
+	private volatile Block lastBlock = null;	// the last inflated block
+
+	/**
+	 * An inflated block.
+	 */
+	private static final class Block {
+		final int index;
+		final byte[] data;
+
+		Block(int index, byte[] data) {
+			this.index = index;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Constructor for initialize BGZFIndexedFile.
+	 * @param file The BGZF file.
+	 * @param gziFile The .gzi index file of the BGZF file.
+	 * @throws IOException If a file can not be read, or the index is not valid.
+	 */
+	BGZFIndexedFile(File file, File gziFile) throws IOException {
+		// "number of entries", then "compressed offset, decompressed offset" per entry, little-endian unsigned 64-bit
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(gziFile), 1 << 16));
+		try {
+			long count = Long.reverseBytes(dis.readLong());
+			if(count < 0 || count > (gziFile.length() - 8) / 16)
+				throw new IOException("Malformed .gzi file: " + gziFile);
+			compressedOffsets = new long[(int)count + 1];
+			offsets = new long[(int)count + 1];
+			for(int i=1;i<=count;i++) {
+				compressedOffsets[i] = Long.reverseBytes(dis.readLong());
+				offsets[i] = Long.reverseBytes(dis.readLong());
+				if(compressedOffsets[i] <= compressedOffsets[i-1] || offsets[i] < offsets[i-1])
+					throw new IOException("Malformed .gzi file: " + gziFile);
+			}
+		}
+		catch(EOFException e) {
+			throw new IOException("Malformed .gzi file: " + gziFile);
+		}
+		finally {
+			dis.close();
+		}
+		this.file = new RandomAccessFile(file, "r");
+		channel = this.file.getChannel();
+	}
+
+	/**
+	 * Get a byte.
+	 * @param offset Decompressed offset.
+	 * @return The byte.
+	 * @throws IOException If the offset is out of the file, or the block can not be read.
+	 */
+	byte get(long offset) throws IOException {
+		Block block = lastBlock;
+		if(block == null || offset < offsets[block.index] || offset - offsets[block.index] >= block.data.length) {
+			block = readBlock(findBlock(offset));
+			if(offset - offsets[block.index] >= block.data.length)
+				throw new IOException("Offset out of file: " + offset);
+			lastBlock = block;
+		}
+		return block.data[(int)(offset - offsets[block.index])];
+	}
+
+	/**
+	 * Find the last block which starts at or before a decompressed offset. Empty blocks share the offset of the next
+	 * block, so the last one of them is taken.
+	 */
+	private int findBlock(long offset) throws IOException {
+		if(offset < 0)
+			throw new IOException("Offset out of file: " + offset);
+		int low = 0, high = offsets.length - 1;
+		while(low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if(offsets[mid] <= offset)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Read and inflate a block.
+	 */
+	private Block readBlock(int index) throws IOException {
+		byte[] header = new byte[BGZFInputStream.BLOCK_HEADER_LEN];
+		readFully(header, compressedOffsets[index]);
+		byte[] block = new byte[BGZFInputStream.getBlockSize(header)];
+		readFully(block, compressedOffsets[index]);
+		return new Block(index, BGZFInputStream.inflate(block));
+	}
+
+	private void readFully(byte[] bytes, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) == -1)
+				throw new IOException("Truncated BGZF block");
+		}
+	}
+
+	/**
+	 * Close the file.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+}
@@ -0,0 +1,310 @@
+/*
+ * Program name: BGZFInputStream.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Input stream of a BGZF file decompressed in parallel.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * Input stream of a BGZF file (bgzip, such as .vcf.gz and .fa.gz of samtools) decompressed in parallel.
+ * A BGZF file is a series of gzip members of at most 64 KB, each of which holds its own size in the "BC" extra field.
+ * The compressed blocks are read in order by the reading thread, inflated by worker threads ahead of the reader,
+ * and read back in order, so the stream is the same as a sequential gzip stream.
+ * <p>
+ * open() detects the format of a file: BGZF is read by this stream, other gzip files by a sequential GZIPInputStream,
+ * and other files as they are.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class BGZFInputStream extends InputStream {
+	static final int BLOCK_HEADER_LEN = 18;	// gzip header with the "BC" extra field
+	private static final int MAX_BLOCK_SIZE = 65536;
+
+	private final InputStream in;
+	private final ExecutorService executor;
+	private final int readAhead;
+	private final LinkedList<Future<byte[]>> blocks = new LinkedList<Future<byte[]>>();	// blocks being inflated in order
+	private boolean isEOF = false;
+	private byte[] buffer = new byte[0];	// the inflated block being read
+	private int bufferPos = 0;
+
+	/**
+	 * Constructor for initialize BGZFInputStream with a worker thread per processor.
+	 * @param in The BGZF stream.
+	 */
+	public BGZFInputStream(InputStream in) {
+		this(in, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for initialize BGZFInputStream.
+	 * @param in The BGZF stream.
+	 * @param threads The number of worker threads.
+	 */
+	public BGZFInputStream(InputStream in, int threads) {
+		this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+		threads = Math.max(threads, 1);
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "BGZFInputStream-worker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		readAhead = threads * 4;
+	}
+
+	/**
+	 * Open a file, and decompress it if it is gzip. BGZF is decompressed in parallel, and other gzip sequentially.
+	 * @param file The file.
+	 * @return The stream of the decompressed file.
+	 * @throws IOException IOException
+	 */
+	public static InputStream open(File file) throws IOException {
+		int format = getFormat(file);
+		InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+		if(format == FORMAT_BGZF)
+			return new BGZFInputStream(in);
+		if(format == FORMAT_GZIP)
+			return new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+		return in;
+	}
+
+	/** Not compressed. */
+	public static final int FORMAT_PLAIN = 0;
+	/** gzip, not BGZF. */
+	public static final int FORMAT_GZIP = 1;
+	/** BGZF. */
+	public static final int FORMAT_BGZF = 2;
+
+	/**
+	 * Get the compression format of a file by its first bytes.
+	 * @param file The file.
+	 * @return FORMAT_PLAIN, FORMAT_GZIP or FORMAT_BGZF.
+	 * @throws IOException IOException
+	 */
+	public static int getFormat(File file) throws IOException {
+		byte[] header = new byte[BLOCK_HEADER_LEN];
+		int len = 0;
+		InputStream in = new FileInputStream(file);
+		try {
+			int n;
+			while(len < header.length && (n=in.read(header, len, header.length-len)) != -1)
+				len += n;
+		}
+		finally {
+			in.close();
+		}
+		if(len < 2 || (header[0] & 0xFF) != 31 || (header[1] & 0xFF) != 139)
+			return FORMAT_PLAIN;
+		if(len == BLOCK_HEADER_LEN && isBGZFHeader(header))
+			return FORMAT_BGZF;
+		return FORMAT_GZIP;
+	}
+
+	/**
+	 * Judge if a block header is of BGZF: deflate, FEXTRA, and the "BC" subfield first with 2 bytes.
+	 */
+	private static boolean isBGZFHeader(byte[] header) {
+		return (header[0] & 0xFF) == 31 && (header[1] & 0xFF) == 139 && header[2] == 8 && (header[3] & 4) != 0 &&
+			header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0;
+	}
+
+	/**
+	 * Decompress a gzip file into a temporary file. The caller owns the temporary file and deletes it when done, and it
+	 * is also deleted on exit if it is left. A file not compressed is returned as it is.
+	 * @param file The file.
+	 * @return The decompressed file, or the file itself if not compressed.
+	 * @throws IOException IOException
+	 */
+	public static File decompressToTemp(File file) throws IOException {
+		if(getFormat(file) == FORMAT_PLAIN)
+			return file;
+		File temp = File.createTempFile("rehunt-", "-" + file.getName().replaceAll("\\.b?gz$", ""));
+		temp.deleteOnExit();
+		try {
+			InputStream in = open(file);
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), 1 << 16);
+			try {
+				byte[] buff = new byte[1 << 16];
+				int n;
+				while((n=in.read(buff)) != -1)
+					out.write(buff, 0, n);
+			}
+			finally {
+				in.close();
+				out.close();
+			}
+		}
+		catch(IOException e) {
+			temp.delete();
+			throw e;
+		}
+		return temp;
+	}
+
+	/**
+	 * Read the next compressed block.
+	 * @return The block, or null at the end of the stream.
+	 */
+	private byte[] readBlock() throws IOException {
+		byte[] header = new byte[BLOCK_HEADER_LEN];
+		int len = readFully(header, 0, header.length);
+		if(len == 0)
+			return null;
+		if(len < header.length)
+			throw new IOException("Not a BGZF block");
+		int blockSize = getBlockSize(header);
+		byte[] block = Arrays.copyOf(header, blockSize);
+		if(readFully(block, header.length, blockSize - header.length) < blockSize - header.length)
+			throw new IOException("Truncated BGZF block");
+		return block;
+	}
+
+	/**
+	 * Get the size of a compressed block from its header.
+	 * @param header The first BLOCK_HEADER_LEN bytes of the block.
+	 * @return The block size in bytes, with the header.
+	 * @throws IOException If it is not a BGZF block header.
+	 */
+	static int getBlockSize(byte[] header) throws IOException {
+		if(!isBGZFHeader(header))
+			throw new IOException("Not a BGZF block");
+		int blockSize = ((header[16] & 0xFF) | ((header[17] & 0xFF) << 8)) + 1;
+		if(blockSize < BLOCK_HEADER_LEN + 8 || blockSize > MAX_BLOCK_SIZE)
+			throw new IOException("Bad BGZF block size: " + blockSize);
+		return blockSize;
+	}
+
+	private int readFully(byte[] b, int off, int len) throws IOException {
+		int total = 0;
+		int n;
+		while(total < len && (n=in.read(b, off+total, len-total)) != -1)
+			total += n;
+		return total;
+	}
+
+	/**
+	 * Inflate a block and check its CRC32.
+	 */
+	static byte[] inflate(byte[] block) throws IOException {
+		int xlen = (block[10] & 0xFF) | ((block[11] & 0xFF) << 8);
+		int dataStart = 12 + xlen;
+		int dataEnd = block.length - 8;
+		int isize = readInt(block, block.length - 4);
+		int crc = readInt(block, block.length - 8);
+		if(isize < 0 || isize > MAX_BLOCK_SIZE || dataStart > dataEnd)
+			throw new IOException("Bad BGZF block");
+		byte[] data = new byte[isize];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(block, dataStart, dataEnd - dataStart);
+			int len = 0;
+			while(len < isize) {
+				int n = inflater.inflate(data, len, isize - len);
+				if(n == 0 && (inflater.finished() || inflater.needsInput()))
+					break;
+				len += n;
+			}
+			if(len != isize)
+				throw new IOException("Bad BGZF block size");
+		}
+		catch(DataFormatException e) {
+			throw new IOException("Bad BGZF block: " + e.getMessage());
+		}
+		finally {
+			inflater.end();
+		}
+		CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, isize);
+		if((int)crc32.getValue() != crc)
+			throw new IOException("BGZF block CRC error");
+		return data;
+	}
+
+	private static int readInt(byte[] b, int off) {
+		return (b[off] & 0xFF) | ((b[off+1] & 0xFF) << 8) | ((b[off+2] & 0xFF) << 16) | ((b[off+3] & 0xFF) << 24);
+	}
+
+	/**
+	 * Submit blocks to inflate until readAhead blocks are in flight, and take the next inflated block.
+	 * @return If a block is taken then return true, else return false at the end of the stream.
+	 */
+	private boolean nextBlock() throws IOException {
+		while(!isEOF && blocks.size() < readAhead) {
+			final byte[] block = readBlock();
+			if(block == null) {
+				isEOF = true;
+				break;
+			}
+			blocks.add(executor.submit(new Callable<byte[]>() {
+				public byte[] call() throws IOException {
+					return inflate(block);
+				}
+			}));
+		}
+		if(blocks.isEmpty())
+			return false;
+		try {
+			buffer = blocks.poll().get();
+		}
+		catch(InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException)
+				throw (IOException)e.getCause();
+			throw new IOException(e.getCause());
+		}
+		bufferPos = 0;
+		return true;
+	}
+
+	public int read() throws IOException {
+		while(bufferPos == buffer.length) {
+			if(!nextBlock())
+				return -1;
+		}
+		return buffer[bufferPos++] & 0xFF;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0)
+			return 0;
+		while(bufferPos == buffer.length) {	// skip empty blocks such as the EOF marker block
+			if(!nextBlock())
+				return -1;
+		}
+		int n = Math.min(len, buffer.length - bufferPos);
+		System.arraycopy(buffer, bufferPos, b, off, n);
+		bufferPos += n;
+		return n;
+	}
+
+	public int available() {
+		return buffer.length - bufferPos;
+	}
+
+	/**
+	 * Close the stream and stop the worker threads.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		for(Future<byte[]> block : blocks)
+			block.cancel(true);
+		blocks.clear();
+		executor.shutdownNow();
+		in.close();
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Program name: FastaReader.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Memory-mapped reader of a multi-record FASTA file.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.util.*;
+
+import bio.rehunt.algorithm.BM;
+
+/**
+ * Memory-mapped reader of a multi-record FASTA file.
+ * The file is mapped by FileChannel and scanned once for the records and their line lengths, and every record is read
+ * as a FastaRecord, a CharSequence view of the mapped file. The bases are not loaded into the heap, so files larger
+ * than the heap can be searched, such as by the chunks of chunks() with (enzymeLen_max - 1) bases of overlap.
+ * A gzip or BGZF (bgzip) FASTA file is decompressed into a temporary file first, BGZF in parallel, and the temporary
+ * file is deleted by close().
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class FastaReader implements Closeable, Iterable<FastaRecord> {
+	private final MappedFile file;
+	private final File temp;	// decompressed temporary file, or null if the file is not compressed
+	private final List<FastaRecord> records;
+	private final Map<String, FastaRecord> recordMap;
+
+	/**
+	 * Constructor for initialize FastaReader.
+	 * @param file The FASTA file.
+	 * @throws IOException If the file can not be read, or a record is longer than Integer.MAX_VALUE bases.
+	 */
+	public FastaReader(File file) throws IOException {
+		File mappedFile = BGZFInputStream.decompressToTemp(file);
+		temp = mappedFile != file ? mappedFile : null;
+		try {
+			this.file = new MappedFile(mappedFile);
+		}
+		catch(IOException e) {
+			deleteTemp();
+			throw e;
+		}
+		records = new ArrayList<FastaRecord>();
+		recordMap = new HashMap<String, FastaRecord>();
+		try {
+			scan();
+		}
+		catch(IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Scan the file for the records.
+	 */
+	private void scan() throws IOException {
+		long size = file.size();
+		long pos = 0;
+		RecordBuilder builder = null;
+		while(pos < size) {
+			// read a line
+			long lineStart = pos;
+			while(pos < size && file.get(pos) != '\n')
+				pos++;
+			long lineEnd = pos;	// exclusive, without '\n'
+			if(pos < size)
+				pos++;
+			if(lineEnd > lineStart && file.get(lineEnd-1) == '\r')
+				lineEnd--;
+			if(lineEnd > lineStart && file.get(lineStart) == '>') {
+				if(builder != null)
+					addRecord(builder.build());
+				StringBuffer header = new StringBuffer();
+				for(long i=lineStart+1;i<lineEnd;i++)
+					header.append((char)(file.get(i) & 0xFF));
+				builder = new RecordBuilder(header.toString().trim());
+				continue;
+			}
+			if(builder != null && lineEnd > lineStart)
+				builder.addLine(lineStart, lineEnd - lineStart, pos - lineStart);
+		}
+		if(builder != null)
+			addRecord(builder.build());
+	}
+
+	private void addRecord(FastaRecord record) {
+		records.add(record);
+		if(!recordMap.containsKey(record.getName()))
+			recordMap.put(record.getName(), record);
+	}
+
+	/**
+	 * Builder of the layout of a record. The line offsets are kept only after a line of a different length.
+	 */
+	private class RecordBuilder {
+		private final String description;
+		private long offset = -1;
+		private long length = 0;
+		private int lineBases = 0;
+		private int lineBytes = 0;
+		private long lastLineBases = -1;	// bases of the last line, which can be shorter
+		private int[] lineStarts = null;
+		private long[] lineOffsets = null;
+		private int lineCount = 0;
+
+		RecordBuilder(String description) {
+			this.description = description;
+		}
+
+		void addLine(long lineOffset, long bases, long bytes) throws IOException {
+			if(length + bases > Integer.MAX_VALUE)
+				throw new IOException("FASTA record is too long: " + description);
+			if(offset == -1) {
+				offset = lineOffset;
+				lineBases = (int)bases;
+				lineBytes = (int)bytes;
+			}
+			else if(lineStarts == null && (lastLineBases != lineBases || bases > lineBases ||
+				lineOffset != offset + (length / lineBases) * lineBytes)) {
+				// the lines differ, so keep the offset of every line
+				lineStarts = new int[Math.max(lineCount * 2, 16)];
+				lineOffsets = new long[lineStarts.length];
+				for(int i=0;i<lineCount;i++) {
+					lineStarts[i] = i * lineBases;
+					lineOffsets[i] = offset + (long)i * lineBytes;
+				}
+			}
+			if(lineStarts != null) {
+				if(lineCount == lineStarts.length) {
+					lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+					lineOffsets = Arrays.copyOf(lineOffsets, lineCount * 2);
+				}
+				lineStarts[lineCount] = (int)length;
+				lineOffsets[lineCount] = lineOffset;
+			}
+			lineCount++;
+			length += bases;
+			lastLineBases = bases;
+		}
+
+		FastaRecord build() {
+			String name = description;
+			for(int i=0;i<description.length();i++) {
+				if(Character.isWhitespace(description.charAt(i))) {
+					name = description.substring(0, i);
+					break;
+				}
+			}
+			int[] starts = lineStarts == null ? null : Arrays.copyOf(lineStarts, lineCount);
+			long[] offsets = lineOffsets == null ? null : Arrays.copyOf(lineOffsets, lineCount);
+			FastaRecord.Layout layout = new FastaRecord.Layout(file, name, description, Math.max(offset, 0), (int)length,
+				Math.max(lineBases, 1), lineBytes, starts, offsets);
+			return new FastaRecord(layout, 0, (int)length);
+		}
+	}
+
+	/**
+	 * Get the number of records.
+	 * @return The number of records.
+	 */
+	public int size() {
+		return records.size();
+	}
+
+	/**
+	 * Get a record.
+	 * @param index Record index in the file.
+	 * @return The record.
+	 */
+	public FastaRecord get(int index) {
+		return records.get(index);
+	}
+
+	/**
+	 * Get a record by name.
+	 * @param name Record name, the first word of the header line.
+	 * @return The first record of the name, or null if not found.
+	 */
+	public FastaRecord get(String name) {
+		return recordMap.get(name);
+	}
+
+	/**
+	 * Get the iterator of the records in the order of the file.
+	 * @return The iterator.
+	 */
+	public Iterator<FastaRecord> iterator() {
+		return Collections.unmodifiableList(records).iterator();
+	}
+
+	/**
+	 * Get the chunks of all records in the order of the file. A chunk does not cross records, and neighbouring chunks
+	 * of a record overlap by "overlap" bases, see FastaRecord.chunks().
+	 * @param chunkSize The chunk length.
+	 * @param overlap The overlap length, such as (enzymeLen_max - 1).
+	 * @return The iterator of the chunks.
+	 */
+	public Iterator<FastaRecord> chunks(final int chunkSize, final int overlap) {
+		if(overlap < 0 || chunkSize <= overlap)
+			throw new IllegalArgumentException("Chunk size " + chunkSize + " must be larger than overlap " + overlap);
+		return new Iterator<FastaRecord>() {
+			private int index = 0;
+			private Iterator<FastaRecord> chunks = null;
+
+			public boolean hasNext() {
+				while((chunks == null || !chunks.hasNext()) && index < records.size())
+					chunks = records.get(index++).chunks(chunkSize, overlap);
+				return chunks != null && chunks.hasNext();
+			}
+
+			public FastaRecord next() {
+				if(!hasNext())
+					throw new NoSuchElementException();
+				return chunks.next();
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Close the file.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		file.close();
+		deleteTemp();
+	}
+
+	/**
+	 * Delete the decompressed temporary file. If it can not be deleted yet, it is deleted on exit.
+	 */
+	private void deleteTemp() {
+		if(temp != null)
+			temp.delete();
+	}
+
+	/**
+	 * Search a key in every record of a FASTA file by BM, chunk by chunk, without loading the records into the heap.
+	 * @param args args[0] is the FASTA file, "test/test_file.fasta" by default, and args[1] is the key, "CCCCC" by default.
+	 * @throws IOException IOException
+	 */
+	public static void main(String args[]) throws IOException {
+		String test_file = args.length > 0 ? args[0] : "test" + File.separator + "test_file.fasta";
+		String key = args.length > 1 ? args[1] : "CCCCC";
+		FastaReader fastaReader = new FastaReader(new File(test_file));
+		try {
+			// chunks overlapped by (key length - 1) bases, so a key across two chunks is found once
+			BM bm = new BM();
+			Iterator<FastaRecord> chunks = fastaReader.chunks(1 << 20, key.length()-1);
+			while(chunks.hasNext()) {
+				FastaRecord chunk = chunks.next();
+				for(int pos : bm.findAll(chunk, key))
+					System.out.println(chunk.getName() + ": the key is found on: " + (chunk.getStart() + pos));
+			}
+		}
+		finally {
+			fastaReader.close();
+		}
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Program name: FastaRecord.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Sequence of a FASTA record read from the memory-mapped file.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Sequence of a FASTA record read from the memory-mapped file, or a region of it.
+ * The bases are not copied into the heap. A base is read from its offset in the file, and new lines are skipped by
+ * the line length of the record, so the record reads as a CharSequence of upper case bases.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class FastaRecord implements CharSequence {
+	private final Layout layout;
+	private final int start;	// start of this region in the record
+	private final int end;	// end (exclusive) of this region in the record
+
+	/**
+	 * The positions of the bases of a record in the file.
+	 */
+	static class Layout {
+		final MappedFile file;
+		final String name;
+		final String description;
+		final long offset;	// file offset of the first base
+		final int length;
+		final int lineBases;	// bases per line if the lines have the same length, else 0
+		final int lineBytes;	// bytes per line with the new line characters
+		final int[] lineStarts;	// first base of every line if the lines differ, else null
+		final long[] lineOffsets;	// file offset of every line if the lines differ, else null
+
+		Layout(MappedFile file, String name, String description, long offset, int length, int lineBases, int lineBytes,
+			int[] lineStarts, long[] lineOffsets) {
+			this.file = file;
+			this.name = name;
+			this.description = description;
+			this.offset = offset;
+			this.length = length;
+			this.lineBases = lineBases;
+			this.lineBytes = lineBytes;
+			this.lineStarts = lineStarts;
+			this.lineOffsets = lineOffsets;
+		}
+
+		/**
+		 * Get the file offset of a base.
+		 */
+		long getOffset(int pos) {
+			if(lineStarts == null)
+				return offset + (long)(pos / lineBases) * lineBytes + pos % lineBases;
+			int line = Arrays.binarySearch(lineStarts, pos);
+			if(line < 0)
+				line = -line - 2;
+			return lineOffsets[line] + (pos - lineStarts[line]);
+		}
+	}
+
+	FastaRecord(Layout layout, int start, int end) {
+		this.layout = layout;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Get the record name, the first word of the header line.
+	 * @return The record name.
+	 */
+	public String getName() {
+		return layout.name;
+	}
+
+	/**
+	 * Get the header line without '&gt;'.
+	 * @return The header line.
+	 */
+	public String getDescription() {
+		return layout.description;
+	}
+
+	/**
+	 * Get the start position of this region in the record.
+	 * @return The start position, 0 for a whole record.
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the length of the whole record.
+	 * @return The record length.
+	 */
+	public int getRecordLength() {
+		return layout.length;
+	}
+
+	public int length() {
+		return end - start;
+	}
+
+	public char charAt(int index) {
+		if(index < 0 || index >= end - start)
+			throw new IndexOutOfBoundsException("Index: " + index);
+		try {
+			return Character.toUpperCase((char)(layout.file.get(layout.getOffset(start + index)) & 0xFF));
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Get a region of this sequence as a view of the file, without copying the bases.
+	 * @param from Start index.
+	 * @param to End index (exclusive).
+	 * @return The region.
+	 */
+	public FastaRecord subSequence(int from, int to) {
+		if(from < 0 || to > end - start || from > to)
+			throw new IndexOutOfBoundsException("Range: " + from + "-" + to);
+		return new FastaRecord(layout, start + from, start + to);
+	}
+
+	/**
+	 * Get the regions of this sequence by chunks. Neighbouring chunks overlap by "overlap" bases, so a site shorter
+	 * than or equal to (overlap + 1) bases is in at least one chunk. For restriction enzymes of at most
+	 * enzymeLen_max bases, the overlap is (enzymeLen_max - 1).
+	 * @param chunkSize The chunk length.
+	 * @param overlap The overlap length, less than chunkSize.
+	 * @return The iterator of the chunks.
+	 */
+	public Iterator<FastaRecord> chunks(final int chunkSize, final int overlap) {
+		if(overlap < 0 || chunkSize <= overlap)
+			throw new IllegalArgumentException("Chunk size " + chunkSize + " must be larger than overlap " + overlap);
+		return new Iterator<FastaRecord>() {
+			private int from = 0;
+			private boolean isEnd = false;
+
+			public boolean hasNext() {
+				return !isEnd;
+			}
+
+			public FastaRecord next() {
+				if(isEnd)
+					throw new NoSuchElementException();
+				int to = Math.min(from + chunkSize, length());
+				FastaRecord chunk = subSequence(from, to);
+				if(to == length())
+					isEnd = true;
+				from = to - overlap;
+				return chunk;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Copy this sequence into a packed sequence.
+	 * @return The packed sequence.
+	 */
+	public PackedSequence toPackedSequence() {
+		return new PackedSequence(this);
+	}
+
+	public String toString() {
+		char[] seq = new char[length()];
+		for(int i=0;i<seq.length;i++)
+			seq[i] = charAt(i);
+		return new String(seq);
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Program name: IndexedFastaReader.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Random access reader of a reference FASTA file indexed by a .fai file.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Random access reader of a reference FASTA file indexed by a .fai file (samtools faidx).
+ * The FASTA file is memory-mapped, and a region is read from the offset of the index without scanning the file.
+ * Every line of a sequence must have the same length except the last one, as samtools faidx requires.
+ * If the .fai file does not exist, the index is built by one pass over the FASTA file.
+ * A BGZF (bgzip) FASTA file with both the .fai and the .gzi files of samtools faidx is read by random access of the
+ * blocks (BGZFIndexedFile), and only the blocks of the regions asked for are inflated. The .fai file of a BGZF file is
+ * of the decompressed offsets, so it is read as it is. A gzip FASTA file, or a BGZF one without the .fai or the .gzi
+ * file, is decompressed into a temporary file first, BGZF in parallel, and the temporary file is deleted by close().
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class IndexedFastaReader implements Closeable {
+	private final MappedFile fasta;	// the FASTA file mapped, or null if it is read by bgzf
+	private final BGZFIndexedFile bgzf;	// the BGZF FASTA file read by its .gzi index, or null if it is mapped
+	private final File temp;	// decompressed temporary file, or null if the FASTA file is not compressed
+	private final Map<String, long[]> index;	// name -> {length, offset, line bases, line bytes}
+	private final List<String> names;	// sequence names in the order of the file
+
+	/**
+	 * Constructor for initialize IndexedFastaReader with the index file of the FASTA file name and ".fai".
+	 * @param fastaFile The FASTA file.
+	 * @throws IOException IOException
+	 */
+	public IndexedFastaReader(File fastaFile) throws IOException {
+		this(fastaFile, new File(fastaFile.getPath() + ".fai"));
+	}
+
+	/**
+	 * Constructor for initialize IndexedFastaReader.
+	 * @param fastaFile The FASTA file.
+	 * @param faiFile The .fai index file, which is built in memory if it does not exist.
+	 * A BGZF FASTA file is read by the .gzi index file of the FASTA file name and ".gzi" if both index files exist.
+	 * @throws IOException IOException
+	 */
+	public IndexedFastaReader(File fastaFile, File faiFile) throws IOException {
+		File gziFile = new File(fastaFile.getPath() + ".gzi");
+		if(faiFile.exists() && gziFile.exists() && BGZFInputStream.getFormat(fastaFile) == BGZFInputStream.FORMAT_BGZF) {
+			fasta = null;
+			temp = null;
+			bgzf = new BGZFIndexedFile(fastaFile, gziFile);
+		}
+		else {
+			bgzf = null;
+			File mappedFile = BGZFInputStream.decompressToTemp(fastaFile);
+			temp = mappedFile != fastaFile ? mappedFile : null;
+			try {
+				fasta = new MappedFile(mappedFile);
+			}
+			catch(IOException e) {
+				deleteTemp();
+				throw e;
+			}
+		}
+		index = new HashMap<String, long[]>();
+		names = new ArrayList<String>();
+		try {
+			if(faiFile.exists())
+				readIndex(faiFile);
+			else
+				buildIndex();
+		}
+		catch(IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Read the .fai index file, "name TAB length TAB offset TAB line bases TAB line bytes" per line.
+	 */
+	private void readIndex(File faiFile) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(faiFile));
+		try {
+			String line;
+			while((line=br.readLine()) != null) {
+				if(line.trim().length() == 0)
+					continue;
+				String[] fields = line.split("\t");
+				if(fields.length < 5)
+					throw new IOException("Malformed .fai line: " + line);
+				try {
+					addIndex(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+				}
+				catch(NumberFormatException e) {
+					throw new IOException("Malformed .fai line: " + line);
+				}
+			}
+		}
+		finally {
+			br.close();
+		}
+	}
+
+	/**
+	 * Build the index by one pass over the FASTA file.
+	 */
+	private void buildIndex() throws IOException {
+		long size = fasta.size();
+		long pos = 0;
+		String name = null;
+		long length = 0, offset = 0, lineBases = 0, lineBytes = 0;
+		while(pos < size) {
+			// read a line
+			long start = pos;
+			while(pos < size && fasta.get(pos) != '\n')
+				pos++;
+			long end = pos;	// exclusive, without '\n'
+			if(pos < size)
+				pos++;
+			if(end > start && fasta.get(start) == '>') {
+				if(name != null)
+					addIndex(name, length, offset, lineBases, lineBytes);
+				StringBuffer strBuff = new StringBuffer();
+				for(long i=start+1;i<end;i++) {
+					char ch = (char)(fasta.get(i) & 0xFF);
+					if(Character.isWhitespace(ch))
+						break;
+					strBuff.append(ch);
+				}
+				name = strBuff.toString();
+				length = 0;
+				offset = pos;
+				lineBases = 0;
+				lineBytes = 0;
+				continue;
+			}
+			long bases = end - start;
+			if(bases > 0 && fasta.get(end-1) == '\r')
+				bases--;
+			if(name == null || bases == 0)
+				continue;
+			if(lineBases == 0) {
+				lineBases = bases;
+				lineBytes = pos - start;
+			}
+			length += bases;
+		}
+		if(name != null)
+			addIndex(name, length, offset, lineBases, lineBytes);
+	}
+
+	private void addIndex(String name, long length, long offset, long lineBases, long lineBytes) {
+		if(!index.containsKey(name))
+			names.add(name);
+		index.put(name, new long[] {length, offset, lineBases, lineBytes});
+	}
+
+	/**
+	 * Get the sequence names in the order of the file.
+	 * @return Sequence name list.
+	 */
+	public List<String> getNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * Judge if the file has a sequence.
+	 * @param name Sequence name.
+	 * @return If the file has the sequence then return true, else return false.
+	 */
+	public boolean contains(String name) {
+		return index.containsKey(name);
+	}
+
+	/**
+	 * Get the length of a sequence.
+	 * @param name Sequence name.
+	 * @return The sequence length, or -1 if not found.
+	 */
+	public long getLength(String name) {
+		long[] entry = index.get(name);
+		return entry == null ? -1 : entry[0];
+	}
+
+	/**
+	 * Get a region of a sequence in upper case. The region is clipped to the sequence.
+	 * @param name Sequence name.
+	 * @param start Start position, 0-based.
+	 * @param end End position, 0-based and exclusive.
+	 * @return The region.
+	 * @throws IOException If the sequence is not found or the file can not be read.
+	 */
+	public String getSequence(String name, long start, long end) throws IOException {
+		long[] entry = index.get(name);
+		if(entry == null)
+			throw new IOException("Sequence not found: " + name);
+		long length = entry[0], offset = entry[1], lineBases = entry[2], lineBytes = entry[3];
+		start = Math.max(start, 0);
+		end = Math.min(end, length);
+		if(start >= end)
+			return "";
+		char[] region = new char[(int)(end - start)];
+		for(long pos=start;pos<end;pos++)
+			region[(int)(pos - start)] = Character.toUpperCase((char)(get(offset + (pos / lineBases) * lineBytes + pos % lineBases) & 0xFF));
+		return new String(region);
+	}
+
+	/**
+	 * Get a byte of the FASTA file, decompressed if it is BGZF.
+	 */
+	private byte get(long offset) throws IOException {
+		if(bgzf != null)
+			return bgzf.get(offset);
+		return fasta.get(offset);
+	}
+
+	/**
+	 * Close the file.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		if(bgzf != null)
+			bgzf.close();
+		else
+			fasta.close();
+		deleteTemp();
+	}
+
+	/**
+	 * Delete the decompressed temporary file. If it can not be deleted yet, it is deleted on exit.
+	 */
+	private void deleteTemp() {
+		if(temp != null)
+			temp.delete();
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Program name: MappedFile.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Read-only memory-mapped file of any size.
+ */
+
+package bio.rehunt.seq;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only memory-mapped file of any size.
+ * A MappedByteBuffer holds at most 2 GB, so the file is mapped by segments of 1 GB on first use.
+ * The bytes are read by absolute offsets, so one instance can be read by threads. A segment is published by an
+ * AtomicReferenceArray, so a thread sees a segment mapped by another thread fully initialized.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+class MappedFile implements Closeable {
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long size;
+	private final AtomicReferenceArray<MappedByteBuffer> segments;
+
+	/**
+	 * Constructor for initialize MappedFile.
+	 * @param file The file.
+	 * @throws IOException IOException
+	 */
+	MappedFile(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		channel = this.file.getChannel();
+		size = channel.size();
+		segments = new AtomicReferenceArray<MappedByteBuffer>((int)((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS));
+	}
+
+	/**
+	 * Get the file size.
+	 * @return The file size in bytes.
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * Get the segment of an offset, and map it if not mapped.
+	 */
+	private MappedByteBuffer getSegment(int index) throws IOException {
+		MappedByteBuffer segment = segments.get(index);
+		if(segment == null) {
+			synchronized(segments) {	// map a segment once
+				segment = segments.get(index);
+				if(segment == null) {
+					long start = (long)index << SEGMENT_BITS;
+					segment = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+					segments.set(index, segment);
+				}
+			}
+		}
+		return segment;
+	}
+
+	/**
+	 * Get a byte.
+	 * @param offset File offset.
+	 * @return The byte.
+	 * @throws IOException IOException
+	 */
+	byte get(long offset) throws IOException {
+		if(offset < 0 || offset >= size)
+			throw new IOException("Offset out of file: " + offset);
+		return getSegment((int)(offset >>> SEGMENT_BITS)).get((int)(offset & (SEGMENT_SIZE - 1)));
+	}
+
+	/**
+	 * Close the file. The mapped segments are released by the garbage collector.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+}
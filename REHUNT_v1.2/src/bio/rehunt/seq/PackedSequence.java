@@ -0,0 +1,310 @@
+/*
+ * Program name: PackedSequence.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ *		Nucleotide sequence packed by 2 bits per base.
+ */
+
+package bio.rehunt.seq;
+
+import java.util.*;
+
+/**
+ * Nucleotide sequence packed by 2 bits per base.
+ * A, C, G and T are stored by 2 bits (A=0, C=1, G=2, T=3) in long words, and the positions of IUPAC codes are kept in a
+ * sparse side table, so a sequence takes about a quarter byte per base instead of two bytes of a String.
+ * The sequence is appended only, and reads as a CharSequence of upper case IUPAC codes.
+ * <p>
+ * A k-mer of k bases (k &lt;= 31) is coded as a 2k-bit long, so a recognition site of A, C, G and T is searched by
+ * rolling the code over the sequence and comparing integers. A code has the top two bits clear, so -1 is never the
+ * code of a k-mer and marks a k-mer with other codes.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class PackedSequence implements CharSequence {
+	/** The maximum k-mer length coded in a long, one less than 32 so -1 is not a k-mer code. */
+	public static final int MAX_K = 31;
+
+	private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+	private long[] words;	// 32 bases per word, the first base in the lowest bits
+	private int length;
+	private int[] IUPACpos;	// ascending positions of IUPAC codes
+	private char[] IUPACcode;	// IUPAC codes at IUPACpos
+	private int IUPACcount;
+
+	/**
+	 * Constructor for initialize an empty PackedSequence.
+	 */
+	public PackedSequence() {
+		words = new long[4];
+		length = 0;
+		IUPACpos = new int[4];
+		IUPACcode = new char[4];
+		IUPACcount = 0;
+	}
+
+	/**
+	 * Constructor for initialize PackedSequence from a sequence.
+	 * @param seq Sequence, characters other than IUPAC codes are skipped.
+	 */
+	public PackedSequence(CharSequence seq) {
+		this();
+		append(seq);
+	}
+
+	/**
+	 * Get the 2-bit code of a base.
+	 * @param ch Base.
+	 * @return 0, 1, 2, 3 for A, C, G, T in upper or lower case, else -1.
+	 */
+	public static int baseCode(char ch) {
+		switch(ch) {
+			case 'A': case 'a': return 0;
+			case 'C': case 'c': return 1;
+			case 'G': case 'g': return 2;
+			case 'T': case 't': return 3;
+			default: return -1;
+		}
+	}
+
+	/**
+	 * Judge if a character is an IUPAC code other than A, C, G and T.
+	 * @param ch Character in upper case.
+	 * @return If the character is M, R, W, S, Y, K, V, H, D, B or N then return true, else return false.
+	 */
+	private static boolean isIUPAC(char ch) {
+		return ch=='M' || ch=='R' || ch=='W' || ch=='S' || ch=='Y' || ch=='K' ||
+			ch=='V' || ch=='H' || ch=='D' || ch=='B' || ch=='N';
+	}
+
+	/**
+	 * Append a base. Characters other than IUPAC codes, such as spaces, new lines and '-', are skipped as RFLP.setSeq() does.
+	 * @param ch Base in upper or lower case.
+	 * @return This sequence.
+	 */
+	public PackedSequence append(char ch) {
+		int code = baseCode(ch);
+		if(code == -1) {
+			ch = Character.toUpperCase(ch);
+			if(!isIUPAC(ch))
+				return this;
+			if(IUPACcount == IUPACpos.length) {
+				IUPACpos = Arrays.copyOf(IUPACpos, IUPACcount * 2);
+				IUPACcode = Arrays.copyOf(IUPACcode, IUPACcount * 2);
+			}
+			IUPACpos[IUPACcount] = length;
+			IUPACcode[IUPACcount++] = ch;
+			code = 0;
+		}
+		if((length >>> 5) == words.length)
+			words = Arrays.copyOf(words, words.length * 2);
+		words[length >>> 5] |= (long)code << ((length & 31) << 1);
+		length++;
+		return this;
+	}
+
+	/**
+	 * Append a sequence. Characters other than IUPAC codes are skipped.
+	 * @param seq Sequence.
+	 * @return This sequence.
+	 */
+	public PackedSequence append(CharSequence seq) {
+		for(int i=0;i<seq.length();i++)
+			append(seq.charAt(i));
+		return this;
+	}
+
+	/**
+	 * Get the sequence length.
+	 * @return Sequence length.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Get the index of a position in the IUPAC side table.
+	 * @param pos Position.
+	 * @return Index, or negative if the base at the position is A, C, G or T.
+	 */
+	private int IUPACindex(int pos) {
+		if(IUPACcount == 0)
+			return -1;
+		return Arrays.binarySearch(IUPACpos, 0, IUPACcount, pos);
+	}
+
+	/**
+	 * Get the 2-bit code of the base at a position.
+	 * @param pos Position.
+	 * @return 0, 1, 2, 3 for A, C, G, T, or -1 for an IUPAC code.
+	 */
+	public int getBase(int pos) {
+		if(pos < 0 || pos >= length)
+			throw new IndexOutOfBoundsException("Position: " + pos);
+		if(IUPACindex(pos) >= 0)
+			return -1;
+		return (int)(words[pos >>> 5] >>> ((pos & 31) << 1)) & 3;
+	}
+
+	public char charAt(int pos) {
+		if(pos < 0 || pos >= length)
+			throw new IndexOutOfBoundsException("Position: " + pos);
+		int index = IUPACindex(pos);
+		if(index >= 0)
+			return IUPACcode[index];
+		return BASES[(int)(words[pos >>> 5] >>> ((pos & 31) << 1)) & 3];
+	}
+
+	public PackedSequence subSequence(int start, int end) {
+		if(start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("Range: " + start + "-" + end);
+		PackedSequence sub = new PackedSequence();
+		for(int i=start;i<end;i++)
+			sub.append(charAt(i));
+		return sub;
+	}
+
+	public String toString() {
+		StringBuilder strBuff = new StringBuilder(length);
+		for(int i=0;i<length;i++)
+			strBuff.append(BASES[(int)(words[i >>> 5] >>> ((i & 31) << 1)) & 3]);
+		for(int i=0;i<IUPACcount;i++)
+			strBuff.setCharAt(IUPACpos[i], IUPACcode[i]);
+		return strBuff.toString();
+	}
+
+	/**
+	 * Get the number of IUPAC codes other than A, C, G and T.
+	 * @return The number of IUPAC codes.
+	 */
+	public int getIUPACCount() {
+		return IUPACcount;
+	}
+
+	/**
+	 * Get the k-mer code of a sequence.
+	 * @param kmer Sequence of A, C, G and T, at most MAX_K bases.
+	 * @return The 2k-bit code with the first base in the highest bits, or -1 if the sequence has other codes.
+	 */
+	public static long encode(CharSequence kmer) {
+		if(kmer.length() > MAX_K)
+			throw new IllegalArgumentException("k-mer is longer than " + MAX_K + ": " + kmer);
+		long code = 0;
+		for(int i=0;i<kmer.length();i++) {
+			int base = baseCode(kmer.charAt(i));
+			if(base == -1)
+				return -1;
+			code = (code << 2) | base;
+		}
+		return code;
+	}
+
+	/**
+	 * Get the sequence of a k-mer code.
+	 * @param code k-mer code.
+	 * @param k k-mer length.
+	 * @return The sequence.
+	 */
+	public static String decode(long code, int k) {
+		char[] kmer = new char[k];
+		for(int i=k-1;i>=0;i--) {
+			kmer[i] = BASES[(int)code & 3];
+			code >>>= 2;
+		}
+		return new String(kmer);
+	}
+
+	/**
+	 * Get the complementary k-mer code, base by base without reversing, as Sequence.complementaryTrans() does.
+	 * @param code k-mer code.
+	 * @param k k-mer length.
+	 * @return The complementary k-mer code.
+	 */
+	public static long complement(long code, int k) {
+		return code ^ kmerMask(k);	// A(0)<->T(3), C(1)<->G(2)
+	}
+
+	/**
+	 * Get the bit mask of a k-mer code.
+	 */
+	private static long kmerMask(int k) {
+		return (1L << (2*k)) - 1;
+	}
+
+	/**
+	 * Get the k-mer code at a position.
+	 * @param pos Start position.
+	 * @param k k-mer length, at most MAX_K.
+	 * @return The k-mer code, or -1 if the k-mer has IUPAC codes other than A, C, G and T.
+	 */
+	public long getKmer(int pos, int k) {
+		if(k > MAX_K || pos < 0 || pos+k > length)
+			throw new IndexOutOfBoundsException("k-mer: " + pos + "+" + k);
+		long code = 0;
+		for(int i=pos;i<pos+k;i++) {
+			int base = getBase(i);
+			if(base == -1)
+				return -1;
+			code = (code << 2) | base;
+		}
+		return code;
+	}
+
+	/**
+	 * Find the first position of a k-mer by rolling k-mer codes over the sequence.
+	 * @param code k-mer code.
+	 * @param k k-mer length, at most MAX_K.
+	 * @param fromIndex The start position for search.
+	 * @return The found position of the k-mer, or -1 if not found.
+	 */
+	public int indexOf(long code, int k, int fromIndex) {
+		if(k <= 0 || k > MAX_K || code == -1)
+			return -1;
+		long mask = kmerMask(k);
+		long rolling = 0;
+		int valid = 0;	// bases since the last IUPAC code
+		int start = Math.max(fromIndex, 0);
+		int index = 0;	// index of the next IUPAC code in the side table
+		if(IUPACcount > 0) {
+			index = Arrays.binarySearch(IUPACpos, 0, IUPACcount, start);
+			if(index < 0)
+				index = -(index + 1);
+		}
+		int nextIUPAC = index < IUPACcount ? IUPACpos[index] : Integer.MAX_VALUE;
+		for(int i=start;i<length;i++) {
+			if(i == nextIUPAC) {
+				valid = 0;
+				index++;
+				nextIUPAC = index < IUPACcount ? IUPACpos[index] : Integer.MAX_VALUE;
+				continue;
+			}
+			rolling = ((rolling << 2) | ((words[i >>> 5] >>> ((i & 31) << 1)) & 3)) & mask;
+			if(++valid >= k && rolling == code)
+				return i-k+1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the first position of a site of A, C, G and T.
+	 * @param site Site sequence, at most MAX_K bases.
+	 * @return The found position of the site, or -1 if not found or the site has other codes.
+	 */
+	public int indexOf(CharSequence site) {
+		return indexOf(encode(site), site.length(), 0);
+	}
+
+	/**
+	 * Judge if the sequence contains a site of A, C, G and T.
+	 * @param site Site sequence, at most MAX_K bases.
+	 * @return If the sequence contains the site then return true, else return false.
+	 */
+	public boolean contains(CharSequence site) {
+		return indexOf(site) != -1;
+	}
+}
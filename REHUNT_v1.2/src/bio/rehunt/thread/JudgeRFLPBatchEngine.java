@@ -0,0 +1,436 @@
+/*
+ * Program name: JudgeRFLPBatchEngine.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Judge RFLP batch engine for parallel analysis.
+ */
+
+package bio.rehunt.thread;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * Judge RFLP batch engine for parallel analysis.
+ * The sequence list is partitioned into chunks, and the chunks are judged in parallel by an ExecutorService,
+ * by default a ForkJoinPool of all processors. The results keep the order of the sequence list.
+ * <p>
+ * A batch is submitted with submit(), which returns a CompletableFuture, or judged with judge(), which blocks until
+ * the batch is completed. awaitCompletion() blocks until all submitted batches are completed.
+ * <p>
+ * An engine of newVirtualThreadEngine() runs every variant in its own virtual thread on JDK 21 or later, so thousands
+ * of variants mixed with I/O, such as fetching the flanking sequences by submitVariant(Callable), can be in flight
+ * at the same time. A semaphore limits the variants being judged at the same time to the number of processors.
+ * <p>
+ * The throughput is the number of judged variants over the wall time from the start of the first judged variant to
+ * the completion of the last one, so variants judged at the same time add to it. The waits for a thread, a source
+ * and a judge permit before the first variant are not counted.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class JudgeRFLPBatchEngine {
+	private static final int CHUNKS_PER_THREAD = 4;	// chunks per thread for balancing the load
+
+	private final ExecutorService executor;
+	private final boolean isOwnExecutor;	// the executor is created by this engine and shut down by shutdown()
+	private final int judgeThreads;	// the maximum number of variants being judged at the same time, or 0 if no limit
+	private final Semaphore judgePermits;	// permits of judgeThreads, or null if no limit
+	private int chunkSize = 0;	// 0 is to partition adaptively
+	private int flank_len = JudgeRFLPResult.FLANK_LEN;
+	private final Set<CompletableFuture<?>> running = Collections.newSetFromMap(new ConcurrentHashMap<CompletableFuture<?>, Boolean>());
+	private final AtomicLong variantCount = new AtomicLong();	// judged variants
+	private final LongAccumulator firstStart = new LongAccumulator(new LongBinaryOperator() {	// nano time the first judge started
+		public long applyAsLong(long a, long b) {
+			return Math.min(a, b);
+		}
+	}, Long.MAX_VALUE);
+	private final LongAccumulator lastEnd = new LongAccumulator(new LongBinaryOperator() {	// nano time the last judge completed
+		public long applyAsLong(long a, long b) {
+			return Math.max(a, b);
+		}
+	}, Long.MIN_VALUE);
+
+	/**
+	 * Constructor for initialize JudgeRFLPBatchEngine with a ForkJoinPool of all processors.
+	 */
+	public JudgeRFLPBatchEngine() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor for initialize JudgeRFLPBatchEngine with a ForkJoinPool.
+	 * @param threads The number of threads.
+	 */
+	public JudgeRFLPBatchEngine(int threads) {
+		this(new ForkJoinPool(Math.max(threads, 1)), true, 0);
+	}
+
+	/**
+	 * Constructor for initialize JudgeRFLPBatchEngine with an executor. The executor is not shut down by this engine.
+	 * @param executor The executor for judging chunks.
+	 */
+	public JudgeRFLPBatchEngine(ExecutorService executor) {
+		this(executor, false, 0);
+	}
+
+	private JudgeRFLPBatchEngine(ExecutorService executor, boolean isOwnExecutor, int judgeThreads) {
+		this.executor = executor;
+		this.isOwnExecutor = isOwnExecutor;
+		this.judgeThreads = judgeThreads;
+		this.judgePermits = judgeThreads > 0 ? new Semaphore(judgeThreads) : null;
+	}
+
+	/**
+	 * Create an engine which runs every variant in its own thread, a virtual thread on JDK 21 or later.
+	 * On an earlier JDK the threads are from a cached thread pool. The variants being judged at the same time are
+	 * limited to the number of processors, so the other threads only wait for I/O.
+	 * @return The engine.
+	 */
+	public static JudgeRFLPBatchEngine newVirtualThreadEngine() {
+		return newVirtualThreadEngine(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create an engine which runs every variant in its own thread, a virtual thread on JDK 21 or later.
+	 * @param judgeThreads The maximum number of variants being judged at the same time.
+	 * @return The engine.
+	 */
+	public static JudgeRFLPBatchEngine newVirtualThreadEngine(int judgeThreads) {
+		ExecutorService executor = newVirtualThreadPerTaskExecutor();
+		if(executor == null)
+			executor = Executors.newCachedThreadPool();
+		JudgeRFLPBatchEngine engine = new JudgeRFLPBatchEngine(executor, true, Math.max(judgeThreads, 1));
+		engine.setChunkSize(1);
+		return engine;
+	}
+
+	/**
+	 * Judge if virtual threads are supported by the running JDK.
+	 * @return If JDK 21 or later then return true, else return false.
+	 */
+	public static boolean isVirtualThreadSupported() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		}
+		catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Get a virtual-thread-per-task executor by reflection, so the program still runs on JDK 1.8.
+	 * @return The executor, or null if virtual threads are not supported.
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Set the number of sequences judged in one task.
+	 * @param chunkSize The chunk size, or 0 to partition adaptively by the sequence number and the parallelism (default).
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = Math.max(chunkSize, 0);
+	}
+
+	/**
+	 * Set the length of the flanking sequences on each side of the variation.
+	 * @param flank_len The flanking sequence length, default is 20.
+	 */
+	public void setFlankLength(int flank_len) {
+		this.flank_len = flank_len;
+	}
+
+	/**
+	 * Get the parallelism of the executor, or the limit of the variants being judged at the same time.
+	 * @return The number of threads.
+	 */
+	public int getParallelism() {
+		if(judgeThreads > 0)
+			return judgeThreads;
+		if(executor instanceof ForkJoinPool)
+			return ((ForkJoinPool)executor).getParallelism();
+		if(executor instanceof ThreadPoolExecutor)
+			return ((ThreadPoolExecutor)executor).getMaximumPoolSize();
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Get the chunk size for a number of sequences.
+	 */
+	private int getChunkSize(int size) {
+		if(chunkSize > 0)
+			return chunkSize;
+		int chunks = getParallelism() * CHUNKS_PER_THREAD;
+		return Math.max((size + chunks - 1) / chunks, 1);
+	}
+
+	/**
+	 * Submit a batch of sequences to judge in parallel.
+	 * @param seqList Sequence list, every element is {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @return The future of the results in the order of seqList.
+	 */
+	public CompletableFuture<List<JudgeRFLPResult>> submit(List<String[]> seqList) {
+		final List<String[]> seqs = new ArrayList<String[]>(seqList);	// random access for LinkedList
+		final int size = getChunkSize(seqs.size());
+		final int flank_len = this.flank_len;
+		List<CompletableFuture<JudgeRFLPResult[]>> chunks = new ArrayList<CompletableFuture<JudgeRFLPResult[]>>();
+		for(int from=0;from<seqs.size();from+=size) {
+			final List<String[]> chunk = seqs.subList(from, Math.min(from+size, seqs.size()));
+			chunks.add(CompletableFuture.supplyAsync(new Supplier<JudgeRFLPResult[]>() {
+				public JudgeRFLPResult[] get() {
+					JudgeRFLPResult[] results = new JudgeRFLPResult[chunk.size()];
+					for(int i=0;i<results.length;i++)
+						results[i] = judge(chunk.get(i), flank_len);
+					return results;
+				}
+			}, executor));
+		}
+		final List<CompletableFuture<JudgeRFLPResult[]>> chunkList = chunks;
+		final CompletableFuture<List<JudgeRFLPResult>> future = CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]))
+			.thenApply(new Function<Void, List<JudgeRFLPResult>>() {
+				public List<JudgeRFLPResult> apply(Void v) {
+					List<JudgeRFLPResult> results = new ArrayList<JudgeRFLPResult>(seqs.size());
+					for(CompletableFuture<JudgeRFLPResult[]> chunk : chunkList)
+						results.addAll(Arrays.asList(chunk.join()));
+					return results;
+				}
+			});
+		running.add(future);
+		future.whenComplete(new BiConsumer<List<JudgeRFLPResult>, Throwable>() {
+			public void accept(List<JudgeRFLPResult> results, Throwable e) {
+				running.remove(future);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Submit a variation to judge.
+	 * @param seq_data {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @return The future of the result.
+	 */
+	public CompletableFuture<JudgeRFLPResult> submitVariant(final String[] seq_data) {
+		return submitVariant(new Callable<String[]>() {
+			public String[] call() {
+				return seq_data;
+			}
+		});
+	}
+
+	/**
+	 * Submit a variation to judge, the sequence of which is fetched in the same thread, such as from a reference file.
+	 * The fetch does not take a judge permit, so it may block on I/O without holding back other variants.
+	 * @param source The source of {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @return The future of the result, which completes exceptionally if the source fails.
+	 */
+	public CompletableFuture<JudgeRFLPResult> submitVariant(final Callable<String[]> source) {
+		final int flank_len = this.flank_len;
+		final CompletableFuture<JudgeRFLPResult> future = CompletableFuture.supplyAsync(new Supplier<JudgeRFLPResult>() {
+			public JudgeRFLPResult get() {
+				String[] seq_data;
+				try {
+					seq_data = source.call();
+				}
+				catch(Exception e) {
+					throw new CompletionException(e);
+				}
+				return judge(seq_data, flank_len);
+			}
+		}, executor);
+		running.add(future);
+		future.whenComplete(new BiConsumer<JudgeRFLPResult, Throwable>() {
+			public void accept(JudgeRFLPResult result, Throwable e) {
+				running.remove(future);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Judge a variation with a judge permit if the judging threads are limited.
+	 */
+	private JudgeRFLPResult judge(String[] seq_data, int flank_len) {
+		if(judgePermits == null)
+			return timedJudge(seq_data, flank_len);
+		judgePermits.acquireUninterruptibly();
+		try {
+			return timedJudge(seq_data, flank_len);
+		}
+		finally {
+			judgePermits.release();
+		}
+	}
+
+	/**
+	 * Judge a variation, and count it with its judging time.
+	 */
+	private JudgeRFLPResult timedJudge(String[] seq_data, int flank_len) {
+		long start = System.nanoTime();
+		JudgeRFLPResult result = JudgeRFLPResult.judge(seq_data, flank_len);
+		firstStart.accumulate(start);
+		lastEnd.accumulate(System.nanoTime());
+		variantCount.incrementAndGet();
+		return result;
+	}
+
+	/**
+	 * Judge a batch of sequences in parallel, and wait for the results.
+	 * @param seqList Sequence list, every element is {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @return The results in the order of seqList.
+	 */
+	public List<JudgeRFLPResult> judge(List<String[]> seqList) {
+		return submit(seqList).join();
+	}
+
+	/**
+	 * Wait until all submitted batches are completed.
+	 * @throws InterruptedException If the current thread is interrupted while waiting.
+	 */
+	public void awaitCompletion() throws InterruptedException {
+		while(!running.isEmpty()) {
+			CompletableFuture<?> all = CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]));
+			try {
+				all.get();
+			}
+			catch(ExecutionException e) {
+				// the failed batch is reported by its own future
+			}
+		}
+	}
+
+	/**
+	 * Get the number of judged sequences.
+	 * @return The number of sequences.
+	 */
+	public long getVariantCount() {
+		return variantCount.get();
+	}
+
+	/**
+	 * Get the wall time from the start of the first judged sequence to the completion of the last one.
+	 * @return The running time in milliseconds.
+	 */
+	public long getTotalTime() {
+		return getTotalTimeNanos() / 1000000l;
+	}
+
+	/**
+	 * Get the wall time from the start of the first judged sequence to the completion of the last one.
+	 */
+	private long getTotalTimeNanos() {
+		long start = firstStart.get(), end = lastEnd.get();
+		return start == Long.MAX_VALUE || end < start ? 0l : end - start;
+	}
+
+	/**
+	 * Get the throughput of the judged sequences over the wall time, see getTotalTime().
+	 * @return The number of sequences judged per second, or 0 if no sequence is judged.
+	 */
+	public double getThroughput() {
+		long count = variantCount.get();
+		long time = getTotalTimeNanos();
+		if(time == 0l)
+			return count == 0l ? 0.0 : Double.POSITIVE_INFINITY;
+		return count * 1e9 / time;
+	}
+
+	/**
+	 * Shut down the executor created by this engine. An executor given to the constructor is not shut down.
+	 */
+	public void shutdown() {
+		if(isOwnExecutor)
+			executor.shutdown();
+	}
+
+	/**
+	 * Get the results of the variations which can be recognized by restriction enzymes, as JudgeRFLPBatchThread.getIsCutResultList().
+	 * @param results The results.
+	 * @return Result list for true or false.
+	 */
+	public static List<Boolean> getIsCutResultList(List<JudgeRFLPResult> results) {
+		List<Boolean> resultList = new ArrayList<Boolean>(results.size());
+		for(JudgeRFLPResult result : results)
+			resultList.add(result.isCanCut());
+		return resultList;
+	}
+
+	/**
+	 * Get batch restriction enzymes of the variation sequences, as JudgeRFLPBatchThread.getCutEnzymesBatch().
+	 * @param results The results.
+	 * @return Batch restriction enzymes list.
+	 */
+	public static List<List<List<String>>> getCutEnzymesBatch(List<JudgeRFLPResult> results) {
+		List<List<List<String>>> cutEnzymesBatch = new ArrayList<List<List<String>>>();
+		for(JudgeRFLPResult result : results) {
+			if(result.isVarSeq())
+				cutEnzymesBatch.add(result.getCutEnzymesList());
+		}
+		return cutEnzymesBatch;
+	}
+
+	/**
+	 * Measure the throughput by the number of threads, 1, 2, 4 and so on up to the maximum, on the same random SNPs of
+	 * 25 bases on both sides. The SNPs are judged a few times first, so the shared catalog and matchers are built and
+	 * compiled, and the best of RUNS runs is reported for every number of threads.
+	 * @param args args[0] is the number of SNPs, 20000 by default, and args[1] is the maximum number of threads, the number
+	 * of processors by default.
+	 */
+	public static void main(String args[]) {
+		final int RUNS = 3;
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		String[] dntps = {"[A/G]", "[C/T]", "[A/C]", "[G/T]", "[A/T]", "[C/G]"};
+		Random random = new Random(1);
+		List<String[]> seqList = new ArrayList<String[]>(count);
+		for(int i=0;i<count;i++)
+			seqList.add(new String[] {"snp" + (i+1), getRandomSeq(random, 25), dntps[i % dntps.length], getRandomSeq(random, 25)});
+		// warm up
+		for(int run=0;run<RUNS;run++) {
+			JudgeRFLPBatchEngine engine = new JudgeRFLPBatchEngine(maxThreads);
+			engine.judge(seqList);
+			engine.shutdown();
+		}
+		System.out.println("threads\tSNPs/s\tspeedup\ttime (ms)");
+		double throughput_1 = 0.0;
+		for(int threads=1;threads<=maxThreads;threads=(threads < maxThreads && threads*2 > maxThreads) ? maxThreads : threads*2) {
+			double throughput = 0.0;
+			long time = 0l;
+			for(int run=0;run<RUNS;run++) {
+				JudgeRFLPBatchEngine engine = new JudgeRFLPBatchEngine(threads);
+				engine.judge(seqList);
+				engine.shutdown();
+				if(engine.getThroughput() > throughput) {
+					throughput = engine.getThroughput();
+					time = engine.getTotalTime();
+				}
+			}
+			if(threads == 1)
+				throughput_1 = throughput;
+			System.out.println(threads + "\t" + String.format("%.0f", throughput) + "\t" + String.format("%.2f", throughput / throughput_1) +
+				"\t" + time);
+		}
+	}
+
+	/**
+	 * Get a random sequence of A, C, G and T.
+	 */
+	private static String getRandomSeq(Random random, int len) {
+		StringBuffer strBuff = new StringBuffer(len);
+		for(int i=0;i<len;i++)
+			strBuff.append("ACGT".charAt(random.nextInt(4)));
+		return strBuff.toString();
+	}
+}
@@ -12,11 +12,9 @@ package bio.rehunt.thread;
 
 import java.util.*;
 
-import bio.rehunt.seq.Sequence;
-import bio.rehunt.rflp.JudgeRFLP;
-
 /**
  * Judge RFLP batch thread.
+ * The sequences are judged one by one in this thread; JudgeRFLPBatchEngine judges them in parallel.
  * @author Yu-Huei Cheng
  * @version REHUNT v1.2
  * @since JDK1.8.0
@@ -48,45 +46,12 @@ public class JudgeRFLPBatchThread extends Thread {
 		for(int i=0;i<seqList.size();i++) {
 			// get seq_data
 			String[] seq_data = seqList.get(i);
-			//String seq_id = seq_data[0];
-			String sequence5 = seq_data[1];
-			String dntps = seq_data[2];
-			String sequence3 = seq_data[3];
-			
-			// get target variation flanking sequence 20 bps
-			int flank_len = 20;
-			if(sequence5.length() > flank_len)
-				sequence5 = sequence5.substring(sequence5.length() - flank_len, sequence5.length());
-			if(sequence3.length() > flank_len)
-				sequence3 = sequence3.substring(0, flank_len);
-			String seq = sequence5 + dntps + sequence3;	// dNTP sequence
-
-			// Sequence
-			Sequence sequence = new Sequence();
-			String seq_complementary = sequence.complementaryTrans(seq);
-			// do seq RFLP
-			boolean isIUPACenzyme = true;
-			JudgeRFLP judgeRFLP = new JudgeRFLP(seq);
-			judgeRFLP.setIUPACenzyme(isIUPACenzyme);
-			if(judgeRFLP.isVarSeq()) {
-				boolean isCut = judgeRFLP.isCanCut_dNTPs();
-				resultList.add(isCut);
-				List<List<String>> cutEnzymesList = judgeRFLP.getCutEnzymesList();
-				cutEnzymesBatch.add(cutEnzymesList);
-			}
-			else {
-				resultList.add(false);
-			}
-			// do seq_complementary RFLP
-			JudgeRFLP judgeRFLP_complementary = new JudgeRFLP(seq_complementary);
-			if(judgeRFLP_complementary.isVarSeq()) {
-				boolean isCut = judgeRFLP_complementary.isCanCut_dNTPs();
-				resultList_complementary.add(isCut);
-				List<List<String>> cutEnzymesList_complementary = judgeRFLP_complementary.getCutEnzymesList();
-				cutEnzymesBatch_complementary.add(cutEnzymesList_complementary);
-			}
-			else {
-				resultList_complementary.add(false);
+			JudgeRFLPResult result = JudgeRFLPResult.judge(seq_data);
+			resultList.add(result.isCanCut());
+			resultList_complementary.add(result.isCanCutComplementary());
+			if(result.isVarSeq()) {
+				cutEnzymesBatch.add(result.getCutEnzymesList());
+				cutEnzymesBatch_complementary.add(result.getCutEnzymesListComplementary());
 			}
 		}
 		/*for(int i=0;i<resultList.size();i++)
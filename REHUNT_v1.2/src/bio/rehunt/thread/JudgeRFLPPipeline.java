@@ -0,0 +1,256 @@
+/*
+ * Program name: JudgeRFLPPipeline.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Judge RFLP streaming pipeline for SNP files.
+ */
+
+package bio.rehunt.thread;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Judge RFLP streaming pipeline for SNP files.
+ * A reader thread reads SNP records into a bounded queue, worker threads judge the records, and the calling thread
+ * gives the results in the order of the file. At most "capacity" records are read but not yet given, so the reader
+ * waits when the workers or the output fall behind, and the memory use does not grow with the file size.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class JudgeRFLPPipeline {
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int capacity = 1024;
+	private int flank_len = JudgeRFLPResult.FLANK_LEN;
+
+	/**
+	 * Listener of the results in the order of the file.
+	 */
+	public interface ResultListener {
+		/**
+		 * Receive a result.
+		 * @param result The result.
+		 * @throws IOException If the result can not be written.
+		 */
+		void result(JudgeRFLPResult result) throws IOException;
+	}
+
+	/**
+	 * Set the number of worker threads.
+	 * @param threads The number of worker threads, default is the number of processors.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * Set the maximum number of records read but not yet given.
+	 * @param capacity The capacity, default is 1024.
+	 */
+	public void setCapacity(int capacity) {
+		this.capacity = Math.max(capacity, 1);
+	}
+
+	/**
+	 * Set the length of the flanking sequences on each side of the variation.
+	 * @param flank_len The flanking sequence length, default is 20.
+	 */
+	public void setFlankLength(int flank_len) {
+		this.flank_len = flank_len;
+	}
+
+	/**
+	 * Judge all records of a SNP file, and write the results as tab-separated values in the order of the file.
+	 * A line is "seq_id TAB + strand TAB - strand TAB enzymes TAB complementary enzymes", where the enzyme lists of
+	 * JudgeRFLP.getCutEnzymesList() are separated by ';' and the names in a list by ','.
+	 * @param reader SNP record source, such as SNPRecordReader or VCFRecordReader.
+	 * @param writer The writer for the results.
+	 * @return The number of records.
+	 * @throws IOException If the file can not be read or the results can not be written.
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	public long run(SNPRecordSource reader, final Writer writer) throws IOException, InterruptedException {
+		writer.write("#seq_id\t+strand\t-strand\tcut_enzymes\tcut_enzymes_complementary\n");
+		long count = run(reader, new ResultListener() {
+			public void result(JudgeRFLPResult result) throws IOException {
+				writer.write(toTSV(result));
+			}
+		});
+		writer.flush();
+		return count;
+	}
+
+	/**
+	 * Get the tab-separated values line of a result.
+	 * @param result The result.
+	 * @return The line with a new line character.
+	 */
+	public static String toTSV(JudgeRFLPResult result) {
+		StringBuffer strBuff = new StringBuffer();
+		strBuff.append(result.getSeqId()).append('\t');
+		strBuff.append(result.isCanCut()).append('\t');
+		strBuff.append(result.isCanCutComplementary()).append('\t');
+		appendEnzymes(strBuff, result.getCutEnzymesList());
+		strBuff.append('\t');
+		appendEnzymes(strBuff, result.getCutEnzymesListComplementary());
+		strBuff.append('\n');
+		return strBuff.toString();
+	}
+
+	/**
+	 * Append enzyme name lists separated by ';'.
+	 */
+	private static void appendEnzymes(StringBuffer strBuff, List<List<String>> cutEnzymesList) {
+		if(cutEnzymesList == null)
+			return;
+		for(int i=0;i<cutEnzymesList.size();i++) {
+			if(i > 0)
+				strBuff.append(';');
+			List<String> cutEnzymes = cutEnzymesList.get(i);
+			for(int j=0;j<cutEnzymes.size();j++) {
+				if(j > 0)
+					strBuff.append(',');
+				strBuff.append(cutEnzymes.get(j));
+			}
+		}
+	}
+
+	/**
+	 * Judge all records of a SNP file, and give the results in the order of the file.
+	 * @param reader SNP record source, such as SNPRecordReader or VCFRecordReader.
+	 * @param listener The listener of the results, called in the calling thread.
+	 * @return The number of records.
+	 * @throws IOException If the file can not be read or the listener fails.
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	public long run(final SNPRecordSource reader, ResultListener listener) throws IOException, InterruptedException {
+		final Pipeline pipeline = new Pipeline(capacity);
+		final BlockingQueue<Object[]> queue = new ArrayBlockingQueue<Object[]>(capacity);
+		final Object[] END = new Object[0];
+		final int workerCount = threads;
+		final int flank_len = this.flank_len;
+		List<Thread> threadList = new ArrayList<Thread>();
+		// reader
+		threadList.add(new Thread("JudgeRFLPPipeline-reader") {
+			public void run() {
+				long count = 0l;
+				try {
+					String[] seq_data;
+					while(true) {
+						pipeline.window.acquire();
+						if((seq_data=reader.next()) == null)
+							break;
+						queue.put(new Object[] {count++, seq_data});
+					}
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+				catch(Throwable e) {
+					pipeline.fail(e);
+				}
+				pipeline.setTotal(count);
+				try {
+					for(int i=0;i<workerCount;i++)
+						queue.put(END);
+				}
+				catch(InterruptedException e) {
+				}
+			}
+		});
+		// workers
+		for(int i=0;i<workerCount;i++) {
+			threadList.add(new Thread("JudgeRFLPPipeline-worker-" + i) {
+				public void run() {
+					try {
+						Object[] task;
+						while((task=queue.take()) != END)
+							pipeline.put((Long)task[0], JudgeRFLPResult.judge((String[])task[1], flank_len));
+					}
+					catch(InterruptedException e) {
+					}
+					catch(Throwable e) {
+						pipeline.fail(e);
+					}
+				}
+			});
+		}
+		for(Thread thread : threadList) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+		// ordered writer
+		long next = 0l;
+		try {
+			JudgeRFLPResult result;
+			while((result=pipeline.take(next)) != null) {
+				listener.result(result);
+				next++;
+				pipeline.window.release();
+			}
+		}
+		finally {
+			for(Thread thread : threadList)
+				thread.interrupt();
+		}
+		return next;
+	}
+
+	/**
+	 * The results being reordered. Record i is kept in slot (i % capacity) until it is given, and the window permits
+	 * keep at most capacity records between reading and giving, so a slot is never used by two records.
+	 */
+	private static class Pipeline {
+		final Semaphore window;
+		private final JudgeRFLPResult[] slots;
+		private long total = -1l;	// the number of records, or -1 if not read to the end
+		private Throwable error = null;
+
+		Pipeline(int capacity) {
+			window = new Semaphore(capacity);
+			slots = new JudgeRFLPResult[capacity];
+		}
+
+		synchronized void put(long index, JudgeRFLPResult result) {
+			slots[(int)(index % slots.length)] = result;
+			notifyAll();
+		}
+
+		synchronized void setTotal(long total) {
+			this.total = total;
+			notifyAll();
+		}
+
+		synchronized void fail(Throwable e) {
+			if(error == null)
+				error = e;
+			notifyAll();
+		}
+
+		/**
+		 * Take the result of a record, and wait until it is judged.
+		 * @return The result, or null if all records are given.
+		 */
+		synchronized JudgeRFLPResult take(long index) throws IOException, InterruptedException {
+			int slot = (int)(index % slots.length);
+			while(slots[slot] == null) {
+				if(error != null) {
+					if(error instanceof IOException)
+						throw (IOException)error;
+					throw new IOException(error);
+				}
+				if(total != -1l && index >= total)
+					return null;
+				wait();
+			}
+			JudgeRFLPResult result = slots[slot];
+			slots[slot] = null;
+			return result;
+		}
+	}
+}
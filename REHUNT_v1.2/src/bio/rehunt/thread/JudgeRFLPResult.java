@@ -0,0 +1,130 @@
+/*
+ * Program name: JudgeRFLPResult.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Judge RFLP result of a variation.
+ */
+
+package bio.rehunt.thread;
+
+import java.util.*;
+
+import bio.rehunt.rflp.JudgeRFLP;
+
+/**
+ * Judge RFLP result of a variation on both strands.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class JudgeRFLPResult {
+	/** The default length of the flanking sequences on each side of the variation. */
+	public static final int FLANK_LEN = 20;
+
+	private String seq_id = null;
+	private boolean is_var_seq = false;
+	private boolean isCut = false;
+	private boolean isCut_complementary = false;
+	private List<List<String>> cutEnzymesList = null;
+	private List<List<String>> cutEnzymesList_complementary = null;
+
+	/**
+	 * Constructor for initialize JudgeRFLPResult.
+	 * @param seq_id Sequence id.
+	 */
+	JudgeRFLPResult(String seq_id) {
+		this.seq_id = seq_id;
+	}
+
+	/**
+	 * Judge a variation if can be recognized by restriction enzymes on both strands.
+	 * @param seq_data {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @return The result.
+	 */
+	public static JudgeRFLPResult judge(String[] seq_data) {
+		return judge(seq_data, FLANK_LEN);
+	}
+
+	/**
+	 * Judge a variation if can be recognized by restriction enzymes on both strands.
+	 * @param seq_data {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}.
+	 * @param flank_len The length of the flanking sequences on each side of the variation.
+	 * @return The result.
+	 */
+	public static JudgeRFLPResult judge(String[] seq_data, int flank_len) {
+		JudgeRFLPResult result = new JudgeRFLPResult(seq_data[0]);
+		String sequence5 = seq_data[1];
+		String dntps = seq_data[2];
+		String sequence3 = seq_data[3];
+		// get target variation flanking sequence
+		if(sequence5.length() > flank_len)
+			sequence5 = sequence5.substring(sequence5.length() - flank_len, sequence5.length());
+		if(sequence3.length() > flank_len)
+			sequence3 = sequence3.substring(0, flank_len);
+		String seq = sequence5 + dntps + sequence3;	// dNTP sequence
+
+		// do seq RFLP, and seq_complementary RFLP in the same pass
+		boolean isIUPACenzyme = true;
+		JudgeRFLP judgeRFLP = new JudgeRFLP(seq);
+		judgeRFLP.setIUPACenzyme(isIUPACenzyme);
+		judgeRFLP.setComplementary(true, false);
+		if(result.is_var_seq=judgeRFLP.isVarSeq()) {
+			result.isCut = judgeRFLP.isCanCut_dNTPs();
+			result.cutEnzymesList = judgeRFLP.getCutEnzymesList();
+			result.isCut_complementary = judgeRFLP.isCanCutComplementary();
+			result.cutEnzymesList_complementary = judgeRFLP.getCutEnzymesListComplementary();
+		}
+		return result;
+	}
+
+	/**
+	 * Get the sequence id.
+	 * @return Sequence id.
+	 */
+	public String getSeqId() {
+		return seq_id;
+	}
+
+	/**
+	 * Judge if the sequence has variations.
+	 * @return If variation sequence then return true, else return false.
+	 */
+	public boolean isVarSeq() {
+		return is_var_seq;
+	}
+
+	/**
+	 * Judge if the variation can be recognized by restriction enzymes.
+	 * @return If return true then the variation can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCut() {
+		return isCut;
+	}
+
+	/**
+	 * Judge if the variation on the complementary strand can be recognized by restriction enzymes.
+	 * @return If return true then the complementary variation can be recognized by restriction enzymes, else return false.
+	 */
+	public boolean isCanCutComplementary() {
+		return isCut_complementary;
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize variation, as JudgeRFLP.getCutEnzymesList().
+	 * @return Restriction enzyme name list, or null if not a variation sequence.
+	 */
+	public List<List<String>> getCutEnzymesList() {
+		return cutEnzymesList;
+	}
+
+	/**
+	 * Get restriction enzyme name list that can recognize variation on the complementary strand.
+	 * @return Restriction enzyme name list, or null if not a variation sequence.
+	 */
+	public List<List<String>> getCutEnzymesListComplementary() {
+		return cutEnzymesList_complementary;
+	}
+}
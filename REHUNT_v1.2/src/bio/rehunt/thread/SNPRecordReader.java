@@ -0,0 +1,209 @@
+/*
+ * Program name: SNPRecordReader.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Read SNP records from a flat file one by one.
+ */
+
+package bio.rehunt.thread;
+
+import java.io.*;
+import java.util.*;
+
+import bio.rehunt.seq.BGZFInputStream;
+
+/**
+ * Read SNP records from a flat file one by one, so a file of any size is read in constant memory.
+ * A record is {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}, the same as the
+ * sequence list of JudgeRFLPBatchThread.
+ * <p>
+ * Two formats are read:
+ * <ul>
+ * <li>FORMAT_TSV: one record per line, "seq_id TAB 5' flank TAB [A/G] TAB 3' flank", or "seq_id TAB sequence" where
+ * the sequence has the variation in brackets such as "ACGT[A/G]ACGT". Empty lines and lines beginning with '#' are skipped.</li>
+ * <li>FORMAT_FLANK: dbSNP FASTA flank format. A header line "&gt;gnl|dbSNP|rs123 rs=123|pos=26|...|alleles="A/G"|..." is
+ * followed by the 5' flank, the variation as an IUPAC code and the 3' flank, separated by empty lines. The variation
+ * is at "pos" (1-based) if given, else it is the second block of sequence lines.</li>
+ * </ul>
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class SNPRecordReader implements SNPRecordSource {
+	/** Tab-separated values format. */
+	public static final int FORMAT_TSV = 0;
+	/** dbSNP FASTA flank format. */
+	public static final int FORMAT_FLANK = 1;
+
+	private BufferedReader reader = null;
+	private int format = FORMAT_TSV;
+	private String line = null;	// the next header line of FORMAT_FLANK
+	private long lineNumber = 0l;
+
+	/**
+	 * Constructor for initialize SNPRecordReader.
+	 * @param reader The reader of the file.
+	 * @param format FORMAT_TSV or FORMAT_FLANK.
+	 */
+	public SNPRecordReader(Reader reader, int format) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+		this.format = format;
+	}
+
+	/**
+	 * Open a SNP file. The format is FORMAT_FLANK if the first character is '&gt;', else FORMAT_TSV.
+	 * A gzip file is decompressed, and a BGZF file is decompressed in parallel, see BGZFInputStream.open().
+	 * @param file The SNP file.
+	 * @return The reader.
+	 * @throws IOException IOException
+	 */
+	public static SNPRecordReader open(File file) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(BGZFInputStream.open(file)), 1 << 16);
+		reader.mark(1);
+		int first = reader.read();
+		reader.reset();
+		return new SNPRecordReader(reader, first == '>' ? FORMAT_FLANK : FORMAT_TSV);
+	}
+
+	/**
+	 * Read the next record.
+	 * @return {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}, or null at the end of the file.
+	 * @throws IOException If the file can not be read or a record is malformed.
+	 */
+	public String[] next() throws IOException {
+		if(format == FORMAT_FLANK)
+			return nextFlank();
+		return nextTSV();
+	}
+
+	/**
+	 * Read the next record of FORMAT_TSV.
+	 */
+	private String[] nextTSV() throws IOException {
+		String line;
+		while((line=reader.readLine()) != null) {
+			lineNumber++;
+			if(line.trim().length() == 0 || line.startsWith("#"))
+				continue;
+			String[] fields = line.split("\t");
+			if(fields.length >= 4)
+				return new String[] {fields[0].trim(), fields[1].trim(), fields[2].trim(), fields[3].trim()};
+			if(fields.length == 2) {
+				String seq = fields[1].trim();
+				int start = seq.indexOf('[');
+				int end = seq.indexOf(']', start+1);
+				if(start != -1 && end != -1)
+					return new String[] {fields[0].trim(), seq.substring(0, start), seq.substring(start, end+1), seq.substring(end+1)};
+			}
+			throw new IOException("Malformed SNP record at line " + lineNumber + ": " + line);
+		}
+		return null;
+	}
+
+	/**
+	 * Read the next record of FORMAT_FLANK.
+	 */
+	private String[] nextFlank() throws IOException {
+		// find the header
+		while(line == null || !line.startsWith(">")) {
+			line = reader.readLine();
+			if(line == null)
+				return null;
+			lineNumber++;
+		}
+		String header = line;
+		// read the sequence blocks until the next header
+		List<StringBuffer> blocks = new ArrayList<StringBuffer>();
+		StringBuffer block = null;
+		while((line=reader.readLine()) != null) {
+			lineNumber++;
+			if(line.startsWith(">"))
+				break;
+			String seqLine = line.trim();
+			if(seqLine.length() == 0) {
+				block = null;
+				continue;
+			}
+			if(block == null) {
+				block = new StringBuffer();
+				blocks.add(block);
+			}
+			block.append(seqLine);
+		}
+		String seq_id = getHeaderId(header);
+		String alleles = getHeaderField(header, "alleles");
+		String pos = getHeaderField(header, "pos");
+		String sequence5, variation, sequence3;
+		if(pos != null) {
+			StringBuffer seq = new StringBuffer();
+			for(StringBuffer b : blocks)
+				seq.append(b);
+			int var_pos;
+			try {
+				var_pos = Integer.parseInt(pos) - 1;
+			}
+			catch(NumberFormatException e) {
+				throw new IOException("Malformed pos of SNP record " + seq_id + ": " + pos);
+			}
+			if(var_pos < 0 || var_pos >= seq.length())
+				throw new IOException("pos out of the sequence of SNP record " + seq_id + ": " + pos);
+			sequence5 = seq.substring(0, var_pos);
+			variation = seq.substring(var_pos, var_pos+1);
+			sequence3 = seq.substring(var_pos+1);
+		}
+		else if(blocks.size() == 3) {
+			sequence5 = blocks.get(0).toString();
+			variation = blocks.get(1).toString();
+			sequence3 = blocks.get(2).toString();
+		}
+		else
+			throw new IOException("No variation position of SNP record " + seq_id);
+		String dntps = alleles != null ? "[" + alleles + "]" : variation;
+		return new String[] {seq_id, sequence5, dntps, sequence3};
+	}
+
+	/**
+	 * Get the id of a FORMAT_FLANK header, such as "rs123" of "&gt;gnl|dbSNP|rs123 rs=123|...".
+	 */
+	private static String getHeaderId(String header) {
+		String id = header.substring(1).trim();
+		int space = id.indexOf(' ');
+		if(space != -1)
+			id = id.substring(0, space);
+		int bar = id.lastIndexOf('|');
+		if(bar != -1 && bar+1 < id.length())
+			id = id.substring(bar+1);
+		return id;
+	}
+
+	/**
+	 * Get a field such as pos=26 or alleles="A/G" of a FORMAT_FLANK header.
+	 * @return The field value without quotes, or null if not found.
+	 */
+	private static String getHeaderField(String header, String name) {
+		int space = header.indexOf(' ');
+		if(space == -1)
+			return null;
+		for(String field : header.substring(space+1).split("\\|")) {
+			field = field.trim();
+			if(field.startsWith(name + "=")) {
+				String value = field.substring(name.length()+1).trim();
+				if(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+					value = value.substring(1, value.length()-1);
+				return value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Close the file.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+}
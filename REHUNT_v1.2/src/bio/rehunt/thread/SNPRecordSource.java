@@ -0,0 +1,28 @@
+/*
+ * Program name: SNPRecordSource.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Source of SNP records.
+ */
+
+package bio.rehunt.thread;
+
+import java.io.*;
+
+/**
+ * Source of SNP records read one by one, such as SNPRecordReader and VCFRecordReader.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public interface SNPRecordSource extends Closeable {
+	/**
+	 * Read the next record.
+	 * @return {seq_id, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}, or null at the end.
+	 * @throws IOException If the records can not be read.
+	 */
+	String[] next() throws IOException;
+}
@@ -0,0 +1,214 @@
+/*
+ * Program name: VCFRecordReader.java
+ * Date: 2026/10/17
+ * Author: agent
+ * E-mail: agent@local
+ *
+ * Function:
+ * 		Read SNP records from a VCF file with the flanking sequences of a reference FASTA file.
+ */
+
+package bio.rehunt.thread;
+
+import java.io.*;
+import java.util.*;
+
+import bio.rehunt.seq.BGZFInputStream;
+import bio.rehunt.seq.IndexedFastaReader;
+
+/**
+ * Read SNP records from a VCF file with the flanking sequences of a reference FASTA file.
+ * A VCF line "CHROM TAB POS TAB ID TAB REF TAB ALT ..." is read as {ID, 5' flank, [REF/ALT1/ALT2...], 3' flank},
+ * where the flanks are read from the indexed reference by random access. An ID of "." is given as "CHROM:POS".
+ * The padding base shared by all alleles of an indel is moved into the 5' flank, and an empty allele is "-", such as
+ * REF=AT ALT=A to [T/-]. Symbolic alleles such as &lt;DEL&gt;, breakends and "*" are skipped, and a line without
+ * other ALT alleles is skipped.
+ * <p>
+ * The lines are read by blocks, and the flanks of a block are read in the order of the reference, so the reference
+ * is read with locality even if the VCF file is not sorted. The records are given in the order of the VCF file.
+ * @author agent
+ * @version REHUNT v1.2
+ * @since JDK1.8.0
+ */
+public class VCFRecordReader implements SNPRecordSource {
+	private static final int BLOCK_SIZE = 4096;
+
+	private final BufferedReader reader;
+	private final IndexedFastaReader reference;
+	private final Map<String, Integer> contigOrder;	// contig name -> order in the reference
+	private int flank_len = JudgeRFLPResult.FLANK_LEN;
+	private final LinkedList<String[]> block = new LinkedList<String[]>();	// records of the block read
+	private long lineNumber = 0l;
+	private boolean isEnd = false;
+
+	/**
+	 * Constructor for initialize VCFRecordReader.
+	 * @param reader The reader of the VCF file.
+	 * @param reference The indexed reference FASTA file.
+	 */
+	public VCFRecordReader(Reader reader, IndexedFastaReader reference) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+		this.reference = reference;
+		contigOrder = new HashMap<String, Integer>();
+		List<String> names = reference.getNames();
+		for(int i=0;i<names.size();i++)
+			contigOrder.put(names.get(i), i);
+	}
+
+	/**
+	 * Open a VCF file. A .vcf.gz file of bgzip is decompressed in parallel, and other gzip files sequentially.
+	 * @param vcfFile The VCF file.
+	 * @param reference The indexed reference FASTA file.
+	 * @return The reader.
+	 * @throws IOException IOException
+	 */
+	public static VCFRecordReader open(File vcfFile, IndexedFastaReader reference) throws IOException {
+		return new VCFRecordReader(new BufferedReader(new InputStreamReader(BGZFInputStream.open(vcfFile)), 1 << 16), reference);
+	}
+
+	/**
+	 * Set the length of the flanking sequences read on each side of the variation.
+	 * @param flank_len The flanking sequence length, default is 20.
+	 */
+	public void setFlankLength(int flank_len) {
+		this.flank_len = flank_len;
+	}
+
+	/**
+	 * Read the next record.
+	 * @return {ID, 5' flanking sequence, dNTPs such as "[A/G]", 3' flanking sequence}, or null at the end of the file.
+	 * @throws IOException If the file can not be read, a line is malformed or the contig is not in the reference.
+	 */
+	public String[] next() throws IOException {
+		if(block.isEmpty() && !isEnd)
+			readBlock();
+		return block.poll();
+	}
+
+	/**
+	 * Read a block of lines, and read the flanks in the order of the reference.
+	 */
+	private void readBlock() throws IOException {
+		final List<String[]> variants = new ArrayList<String[]>();	// {ID, CHROM, start, end, dNTPs}
+		final List<long[]> keys = new ArrayList<long[]>();	// {contig order, start}
+		String line;
+		while(variants.size() < BLOCK_SIZE) {
+			if((line=reader.readLine()) == null) {
+				isEnd = true;
+				break;
+			}
+			lineNumber++;
+			if(line.length() == 0 || line.startsWith("#"))
+				continue;
+			String[] variant = parseLine(line);
+			if(variant == null)
+				continue;
+			Integer order = contigOrder.get(variant[1]);
+			if(order == null)
+				throw new IOException("Contig not in the reference at line " + lineNumber + ": " + variant[1]);
+			variants.add(variant);
+			keys.add(new long[] {order, Long.parseLong(variant[2])});
+		}
+		// read the flanks in the order of the reference
+		Integer[] sorted = new Integer[variants.size()];
+		for(int i=0;i<sorted.length;i++)
+			sorted[i] = i;
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				long[] keyA = keys.get(a), keyB = keys.get(b);
+				if(keyA[0] != keyB[0])
+					return keyA[0] < keyB[0] ? -1 : 1;
+				return Long.compare(keyA[1], keyB[1]);
+			}
+		});
+		String[][] records = new String[variants.size()][];
+		for(int i : sorted) {
+			String[] variant = variants.get(i);
+			long start = Long.parseLong(variant[2]);
+			long end = Long.parseLong(variant[3]);
+			String sequence5 = reference.getSequence(variant[1], start - flank_len, start);
+			String sequence3 = reference.getSequence(variant[1], end, end + flank_len);
+			records[i] = new String[] {variant[0], sequence5, variant[4], sequence3};
+		}
+		block.addAll(Arrays.asList(records));
+	}
+
+	/**
+	 * Parse a VCF data line.
+	 * @return {ID, CHROM, start (0-based), end (exclusive), dNTPs}, or null if no allele can be judged.
+	 */
+	private String[] parseLine(String line) throws IOException {
+		String[] fields = line.split("\t", 6);
+		if(fields.length < 5)
+			throw new IOException("Malformed VCF line " + lineNumber + ": " + line);
+		String chrom = fields[0];
+		long pos;
+		try {
+			pos = Long.parseLong(fields[1]);
+		}
+		catch(NumberFormatException e) {
+			throw new IOException("Malformed POS at VCF line " + lineNumber + ": " + fields[1]);
+		}
+		String id = fields[2].equals(".") ? chrom + ":" + pos : fields[2];
+		String ref = fields[3].toUpperCase();
+		if(!isBases(ref))
+			return null;
+		List<String> alleles = new ArrayList<String>();
+		alleles.add(ref);
+		for(String alt : fields[4].split(",")) {
+			alt = alt.toUpperCase();
+			if(isBases(alt) && !alleles.contains(alt))
+				alleles.add(alt);
+		}
+		if(alleles.size() < 2)
+			return null;
+		long start = pos - 1;
+		long end = start + ref.length();
+		// move the padding base of an indel into the 5' flank
+		boolean isPadded = true;
+		for(String allele : alleles) {
+			if(allele.charAt(0) != ref.charAt(0))
+				isPadded = false;
+		}
+		boolean isIndel = false;
+		for(String allele : alleles) {
+			if(allele.length() != ref.length())
+				isIndel = true;
+		}
+		if(isPadded && isIndel) {
+			for(int i=0;i<alleles.size();i++)
+				alleles.set(i, alleles.get(i).substring(1));
+			start++;
+		}
+		StringBuffer dntps = new StringBuffer("[");
+		for(int i=0;i<alleles.size();i++) {
+			if(i > 0)
+				dntps.append('/');
+			dntps.append(alleles.get(i).length() == 0 ? "-" : alleles.get(i));
+		}
+		dntps.append(']');
+		return new String[] {id, chrom, Long.toString(start), Long.toString(end), dntps.toString()};
+	}
+
+	/**
+	 * Judge if an allele has bases only, not a symbolic allele.
+	 */
+	private static boolean isBases(String allele) {
+		if(allele.length() == 0)
+			return false;
+		for(int i=0;i<allele.length();i++) {
+			char ch = allele.charAt(i);
+			if(ch != 'A' && ch != 'C' && ch != 'G' && ch != 'T' && ch != 'N')
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Close the VCF file. The reference is not closed.
+	 * @throws IOException IOException
+	 */
+	public void close() throws IOException {
+		reader.close();
+	}
+}